@@ -100,8 +100,6 @@ public class EducationalInstitution implements Comparable<EducationalInstitution
 
 	@Override
 	public String toString() {
-		return String.format("EducationalInstitution{name='%s', type='%s', foundationYear=%d, " +
-						   "studentCount=%d, rating=%.2f}",
-						   name, type, foundationYear, studentCount, rating);
+		return InstitutionRenderer.toString(name, type, foundationYear, studentCount, rating);
 	}
 }
@@ -0,0 +1,132 @@
+package Lab3;
+
+import java.util.Objects;
+
+/**
+ * Immutable variant of {@link EducationalInstitution}.
+ * The type is stored as a code from {@link InstitutionTypes} and the hash code
+ * is computed once in the constructor, so equality checks can reject
+ * different objects by comparing hashes first.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class ImmutableInstitution implements Comparable<ImmutableInstitution> {
+    /** Name of the educational institution */
+    private final String name;
+    /** Code of the institution type in {@link InstitutionTypes} */
+    private final int typeCode;
+    /** Foundation year of the institution */
+    private final int foundationYear;
+    /** Total number of students */
+    private final int studentCount;
+    /** Institution rating in the range 0.0 - 100.0 */
+    private final double rating;
+    /** Hash code computed at construction */
+    private final int hash;
+
+    public ImmutableInstitution(String name, String type, int foundationYear,
+                                int studentCount, double rating) {
+        this.name = name;
+        this.typeCode = InstitutionTypes.codeOf(type);
+        this.foundationYear = foundationYear;
+        this.studentCount = studentCount;
+        this.rating = rating;
+        this.hash = computeHash();
+    }
+
+    /**
+     * Creates an immutable copy of a mutable institution
+     *
+     * @param institution institution to copy
+     * @return immutable institution with the same field values
+     */
+    public static ImmutableInstitution of(EducationalInstitution institution) {
+        Objects.requireNonNull(institution, "Institution cannot be null");
+        return new ImmutableInstitution(institution.getName(), institution.getType(),
+                institution.getFoundationYear(), institution.getStudentCount(),
+                institution.getRating());
+    }
+
+    /**
+     * Creates a mutable copy of this institution
+     *
+     * @return EducationalInstitution with the same field values
+     */
+    public EducationalInstitution toMutable() {
+        return new EducationalInstitution(name, getType(), foundationYear, studentCount, rating);
+    }
+
+    /**
+     * Computes the hash code without boxing.
+     * Gives the same value as {@link EducationalInstitution#hashCode()} for equal fields.
+     *
+     * @return hash code
+     */
+    private int computeHash() {
+        String type = getType();
+        long ratingBits = Double.doubleToLongBits(rating);
+        int result = 1;
+        result = 31 * result + (name == null ? 0 : name.hashCode());
+        result = 31 * result + (type == null ? 0 : type.hashCode());
+        result = 31 * result + foundationYear;
+        result = 31 * result + studentCount;
+        result = 31 * result + (int) (ratingBits ^ (ratingBits >>> 32));
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return InstitutionTypes.nameOf(typeCode);
+    }
+
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    public int getFoundationYear() {
+        return foundationYear;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    @Override
+    public int compareTo(ImmutableInstitution other) {
+        return Integer.compare(this.foundationYear, other.foundationYear);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImmutableInstitution)) {
+            return false;
+        }
+        ImmutableInstitution that = (ImmutableInstitution) obj;
+        return hash == that.hash &&
+               foundationYear == that.foundationYear &&
+               studentCount == that.studentCount &&
+               typeCode == that.typeCode &&
+               Double.compare(that.rating, rating) == 0 &&
+               Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return InstitutionRenderer.toString(name, getType(), foundationYear, studentCount, rating);
+    }
+}
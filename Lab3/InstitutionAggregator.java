@@ -0,0 +1,279 @@
+package Lab3;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel aggregation of educational institutions grouped by type:
+ * total student count, average, minimal and maximal rating and counts per foundation decade.
+ * <p>
+ * Rows are split into fixed-size ranges on the common ForkJoinPool; every range is
+ * aggregated into primitive arrays indexed by type code, and partial results are merged
+ * left to right. The split depends only on the number of rows, so floating-point sums
+ * (and therefore averages) are the same for any number of threads.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class InstitutionAggregator {
+    /** Number of rows aggregated by one task without further splitting */
+    static final int LEAF_SIZE = 1 << 12;
+    /** Maximal number of foundation decades that can be counted */
+    static final int MAX_DECADES = 1 << 10;
+
+    private InstitutionAggregator() {
+    }
+
+    /**
+     * Statistics of institutions of one type
+     */
+    public static final class TypeStatistics {
+        private final String type;
+        private final long count;
+        private final long totalStudentCount;
+        private final double averageRating;
+        private final double minRating;
+        private final double maxRating;
+        private final SortedMap<Integer, Long> countByDecade;
+
+        private TypeStatistics(String type, long count, long totalStudentCount, double averageRating,
+                               double minRating, double maxRating, SortedMap<Integer, Long> countByDecade) {
+            this.type = type;
+            this.count = count;
+            this.totalStudentCount = totalStudentCount;
+            this.averageRating = averageRating;
+            this.minRating = minRating;
+            this.maxRating = maxRating;
+            this.countByDecade = Collections.unmodifiableSortedMap(countByDecade);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalStudentCount() {
+            return totalStudentCount;
+        }
+
+        public double getAverageRating() {
+            return averageRating;
+        }
+
+        public double getMinRating() {
+            return minRating;
+        }
+
+        public double getMaxRating() {
+            return maxRating;
+        }
+
+        /**
+         * Returns number of institutions founded in every decade
+         *
+         * @return map from the first year of the decade (for example, 1880) to the count
+         */
+        public SortedMap<Integer, Long> getCountByDecade() {
+            return countByDecade;
+        }
+
+        @Override
+        public String toString() {
+            return "TypeStatistics{type='" + type + "', count=" + count +
+                   ", totalStudentCount=" + totalStudentCount + ", averageRating=" + averageRating +
+                   ", minRating=" + minRating + ", maxRating=" + maxRating +
+                   ", countByDecade=" + countByDecade + "}";
+        }
+    }
+
+    /**
+     * Aggregates institutions by type
+     *
+     * @param institutions institutions to aggregate
+     * @return statistics for every type present, in order of first appearance of the type
+     * @throws IllegalArgumentException if the array contains null
+     *         or foundation years span more than {@link #MAX_DECADES} decades
+     */
+    public static Map<String, TypeStatistics> byType(EducationalInstitution[] institutions) {
+        int n = institutions.length;
+        int[] years = new int[n];
+        int[] students = new int[n];
+        double[] ratings = new double[n];
+        int[] types = new int[n];
+        // Codes are local to the call, so aggregation does not register types globally
+        TypeDictionary typeDictionary = new TypeDictionary();
+        for (int i = 0; i < n; i++) {
+            EducationalInstitution institution = institutions[i];
+            if (institution == null) {
+                throw new IllegalArgumentException("Institutions cannot contain null");
+            }
+            years[i] = institution.getFoundationYear();
+            students[i] = institution.getStudentCount();
+            ratings[i] = institution.getRating();
+            types[i] = typeDictionary.codeOf(institution.getType());
+        }
+        return byType(years, students, ratings, types, typeDictionary.names(), n);
+    }
+
+    /**
+     * Aggregates rows of columnar storage by type
+     *
+     * @param columns institutions to aggregate
+     * @return statistics for every type present, in order in which the types were first added
+     * @throws IllegalArgumentException if foundation years span more than {@link #MAX_DECADES} decades
+     */
+    public static Map<String, TypeStatistics> byType(InstitutionColumns columns) {
+        return byType(columns.foundationYearColumn(), columns.studentCountColumn(),
+                      columns.ratingColumn(), columns.typeCodeColumn(), columns.types().names(), columns.size());
+    }
+
+    private static Map<String, TypeStatistics> byType(int[] years, int[] students, double[] ratings,
+                                                      int[] types, String[] typeNames, int n) {
+        Map<String, TypeStatistics> result = new LinkedHashMap<>();
+        if (n == 0) {
+            return result;
+        }
+
+        IntSummaryStatistics yearRange = Arrays.stream(years, 0, n).parallel().summaryStatistics();
+        int firstDecade = Math.floorDiv(yearRange.getMin(), 10);
+        long decades = (long) Math.floorDiv(yearRange.getMax(), 10) - firstDecade + 1;
+        if (decades > MAX_DECADES) {
+            throw new IllegalArgumentException("Range of foundation years is too wide: "
+                                               + yearRange.getMin() + " - " + yearRange.getMax());
+        }
+
+        Accumulator total = ForkJoinPool.commonPool().invoke(new AggregationTask(
+            years, students, ratings, types, 0, n,
+            typeNames.length + 1, firstDecade, (int) decades));
+
+        for (int t = 0; t < total.typeSlots; t++) {
+            if (total.count[t] == 0) {
+                continue;
+            }
+            SortedMap<Integer, Long> countByDecade = new TreeMap<>();
+            for (int d = 0; d < total.decades; d++) {
+                long count = total.decadeCount[t * total.decades + d];
+                if (count != 0) {
+                    countByDecade.put((firstDecade + d) * 10, count);
+                }
+            }
+            String type = t == 0 ? null : typeNames[t - 1];
+            result.put(type, new TypeStatistics(type, total.count[t], total.students[t],
+                                                total.ratingSum[t] / total.count[t],
+                                                total.ratingMin[t], total.ratingMax[t], countByDecade));
+        }
+        return result;
+    }
+
+    /**
+     * Primitive accumulators indexed by type code + 1
+     */
+    private static final class Accumulator {
+        final int typeSlots;
+        final int decades;
+        final long[] count;
+        final long[] students;
+        final double[] ratingSum;
+        final double[] ratingMin;
+        final double[] ratingMax;
+        /** Counts per type and decade, index is type slot * decades + decade */
+        final long[] decadeCount;
+
+        Accumulator(int typeSlots, int decades) {
+            this.typeSlots = typeSlots;
+            this.decades = decades;
+            this.count = new long[typeSlots];
+            this.students = new long[typeSlots];
+            this.ratingSum = new double[typeSlots];
+            this.ratingMin = new double[typeSlots];
+            this.ratingMax = new double[typeSlots];
+            this.decadeCount = new long[typeSlots * decades];
+            Arrays.fill(ratingMin, Double.POSITIVE_INFINITY);
+            Arrays.fill(ratingMax, Double.NEGATIVE_INFINITY);
+        }
+
+        void merge(Accumulator other) {
+            for (int t = 0; t < typeSlots; t++) {
+                count[t] += other.count[t];
+                students[t] += other.students[t];
+                ratingSum[t] += other.ratingSum[t];
+                ratingMin[t] = Math.min(ratingMin[t], other.ratingMin[t]);
+                ratingMax[t] = Math.max(ratingMax[t], other.ratingMax[t]);
+            }
+            for (int i = 0; i < decadeCount.length; i++) {
+                decadeCount[i] += other.decadeCount[i];
+            }
+        }
+    }
+
+    /**
+     * Task aggregating the range [from, to) of rows
+     */
+    private static final class AggregationTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] years;
+        private final int[] students;
+        private final double[] ratings;
+        private final int[] types;
+        private final int from;
+        private final int to;
+        private final int typeSlots;
+        private final int firstDecade;
+        private final int decades;
+
+        AggregationTask(int[] years, int[] students, double[] ratings, int[] types, int from, int to,
+                        int typeSlots, int firstDecade, int decades) {
+            this.years = years;
+            this.students = students;
+            this.ratings = ratings;
+            this.types = types;
+            this.from = from;
+            this.to = to;
+            this.typeSlots = typeSlots;
+            this.firstDecade = firstDecade;
+            this.decades = decades;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= LEAF_SIZE) {
+                return aggregate();
+            }
+            int mid = (from + to) >>> 1;
+            AggregationTask left = new AggregationTask(years, students, ratings, types, from, mid,
+                                                       typeSlots, firstDecade, decades);
+            AggregationTask right = new AggregationTask(years, students, ratings, types, mid, to,
+                                                        typeSlots, firstDecade, decades);
+            left.fork();
+            Accumulator rightResult = right.compute();
+            Accumulator leftResult = left.join();
+            leftResult.merge(rightResult);
+            return leftResult;
+        }
+
+        private Accumulator aggregate() {
+            Accumulator accumulator = new Accumulator(typeSlots, decades);
+            for (int i = from; i < to; i++) {
+                int t = types[i] + 1;
+                double rating = ratings[i];
+                accumulator.count[t]++;
+                accumulator.students[t] += students[i];
+                accumulator.ratingSum[t] += rating;
+                accumulator.ratingMin[t] = Math.min(accumulator.ratingMin[t], rating);
+                accumulator.ratingMax[t] = Math.max(accumulator.ratingMax[t], rating);
+                accumulator.decadeCount[t * decades + Math.floorDiv(years[i], 10) - firstDecade]++;
+            }
+            return accumulator;
+        }
+    }
+}
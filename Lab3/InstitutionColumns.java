@@ -0,0 +1,508 @@
+package Lab3;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage of educational institutions.
+ * Every field is kept in its own primitive array (column): foundation years,
+ * student counts, ratings and type codes. Type codes come from a dictionary
+ * owned by the storage, so type names are kept only while the storage is.
+ * Names are stored one after another in a shared character table
+ * and referenced by offset and length.
+ * Scans, filters, sorting and aggregates work directly on the columns;
+ * {@link EducationalInstitution} objects are created only by {@link #get(int)}.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionColumns {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Foundation year of every row */
+    private int[] foundationYear;
+    /** Student count of every row */
+    private int[] studentCount;
+    /** Rating of every row */
+    private double[] rating;
+    /** Type code of every row */
+    private int[] typeCode;
+    /** Type names of this storage */
+    private final TypeDictionary types = new TypeDictionary();
+    /** Offset of the name of every row in {@link #nameChars} */
+    private int[] nameOffset;
+    /** Length of the name of every row, -1 for null name */
+    private int[] nameLength;
+    /** Characters of all names */
+    private char[] nameChars;
+    /** Number of used characters in {@link #nameChars} */
+    private int nameCharCount;
+    /** Number of rows */
+    private int size;
+
+    /**
+     * Creates empty storage
+     */
+    public InstitutionColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates empty storage for the expected number of rows
+     *
+     * @param capacity expected number of rows
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public InstitutionColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        this.foundationYear = new int[capacity];
+        this.studentCount = new int[capacity];
+        this.rating = new double[capacity];
+        this.typeCode = new int[capacity];
+        this.nameOffset = new int[capacity];
+        this.nameLength = new int[capacity];
+        this.nameChars = new char[(int) Math.min(capacity * 16L, 1 << 24)];
+    }
+
+    /**
+     * Creates storage with the rows of the array
+     *
+     * @param institutions institutions to store
+     * @return columnar storage
+     */
+    public static InstitutionColumns of(EducationalInstitution[] institutions) {
+        InstitutionColumns columns = new InstitutionColumns(institutions.length);
+        for (EducationalInstitution institution : institutions) {
+            columns.add(institution);
+        }
+        return columns;
+    }
+
+    /**
+     * Adds a row with the fields of the institution
+     *
+     * @param institution institution to add
+     * @return index of the added row
+     * @throws IllegalArgumentException if the institution is null
+     */
+    public int add(EducationalInstitution institution) {
+        if (institution == null) {
+            throw new IllegalArgumentException("Institution cannot be null");
+        }
+        return add(institution.getName(), institution.getType(), institution.getFoundationYear(),
+                   institution.getStudentCount(), institution.getRating());
+    }
+
+    /**
+     * Adds a row
+     *
+     * @param name name of the institution
+     * @param type type of the institution
+     * @param foundationYear foundation year
+     * @param studentCount number of students
+     * @param rating rating
+     * @return index of the added row
+     */
+    public int add(String name, String type, int foundationYear, int studentCount, double rating) {
+        int row = addRow(types.codeOf(type), foundationYear, studentCount, rating);
+        if (name == null) {
+            nameLength[row] = -1;
+        } else {
+            int offset = reserveName(name.length());
+            name.getChars(0, name.length(), nameChars, offset);
+            nameOffset[row] = offset;
+            nameLength[row] = name.length();
+        }
+        return row;
+    }
+
+    /**
+     * Adds a row whose name is a range of a character sequence.
+     * The name is copied into the character table without creating a String.
+     *
+     * @param name sequence containing the name
+     * @param nameStart index of the first character of the name
+     * @param nameEnd index after the last character of the name
+     * @param typeCode code of the type from {@link #typeCodeOf(String)}
+     * @param foundationYear foundation year
+     * @param studentCount number of students
+     * @param rating rating
+     * @return index of the added row
+     */
+    public int add(CharSequence name, int nameStart, int nameEnd, int typeCode,
+                   int foundationYear, int studentCount, double rating) {
+        int length = nameEnd - nameStart;
+        int row = addRow(typeCode, foundationYear, studentCount, rating);
+        int offset = reserveName(length);
+        for (int i = 0; i < length; i++) {
+            nameChars[offset + i] = name.charAt(nameStart + i);
+        }
+        nameOffset[row] = offset;
+        nameLength[row] = length;
+        return row;
+    }
+
+    /**
+     * Adds a row whose name is a range of a character array.
+     * The name is copied into the character table without creating a String.
+     *
+     * @param name array containing the name
+     * @param nameStart index of the first character of the name
+     * @param nameEnd index after the last character of the name
+     * @param typeCode code of the type from {@link #typeCodeOf(String)}
+     * @param foundationYear foundation year
+     * @param studentCount number of students
+     * @param rating rating
+     * @return index of the added row
+     */
+    public int add(char[] name, int nameStart, int nameEnd, int typeCode,
+                   int foundationYear, int studentCount, double rating) {
+        int length = nameEnd - nameStart;
+        int row = addRow(typeCode, foundationYear, studentCount, rating);
+        int offset = reserveName(length);
+        System.arraycopy(name, nameStart, nameChars, offset, length);
+        nameOffset[row] = offset;
+        nameLength[row] = length;
+        return row;
+    }
+
+    /**
+     * Returns the code of the type in this storage, registering the type if it is seen for the first time
+     *
+     * @param type type name
+     * @return code of the type or {@link InstitutionTypes#NO_TYPE} for null
+     */
+    public int typeCodeOf(String type) {
+        return types.codeOf(type);
+    }
+
+    private int addRow(int typeCode, int foundationYear, int studentCount, double rating) {
+        if (size == this.foundationYear.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            this.foundationYear = Arrays.copyOf(this.foundationYear, capacity);
+            this.studentCount = Arrays.copyOf(this.studentCount, capacity);
+            this.rating = Arrays.copyOf(this.rating, capacity);
+            this.typeCode = Arrays.copyOf(this.typeCode, capacity);
+            this.nameOffset = Arrays.copyOf(this.nameOffset, capacity);
+            this.nameLength = Arrays.copyOf(this.nameLength, capacity);
+        }
+        this.foundationYear[size] = foundationYear;
+        this.studentCount[size] = studentCount;
+        this.rating[size] = rating;
+        this.typeCode[size] = typeCode;
+        return size++;
+    }
+
+    private int reserveName(int length) {
+        if (nameCharCount + length > nameChars.length) {
+            int capacity = Math.max(nameCharCount + length, nameChars.length + (nameChars.length >> 1));
+            nameChars = Arrays.copyOf(nameChars, capacity);
+        }
+        int offset = nameCharCount;
+        nameCharCount += length;
+        return offset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getFoundationYear(int row) {
+        return foundationYear[checkRow(row)];
+    }
+
+    public int getStudentCount(int row) {
+        return studentCount[checkRow(row)];
+    }
+
+    public double getRating(int row) {
+        return rating[checkRow(row)];
+    }
+
+    public int getTypeCode(int row) {
+        return typeCode[checkRow(row)];
+    }
+
+    public String getType(int row) {
+        return types.nameOf(typeCode[checkRow(row)]);
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return nameLength[row] < 0 ? null : new String(nameChars, nameOffset[row], nameLength[row]);
+    }
+
+    /**
+     * Compares the name of the row with a character sequence without creating a String
+     *
+     * @param row row index
+     * @param name name to compare with
+     * @return true if the names are equal
+     */
+    public boolean nameEquals(int row, CharSequence name) {
+        checkRow(row);
+        if (name == null || nameLength[row] < 0) {
+            return name == null && nameLength[row] < 0;
+        }
+        if (nameLength[row] != name.length()) {
+            return false;
+        }
+        int offset = nameOffset[row];
+        for (int i = 0; i < name.length(); i++) {
+            if (nameChars[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates an object with the fields of the row
+     *
+     * @param row row index
+     * @return new EducationalInstitution
+     */
+    public EducationalInstitution get(int row) {
+        return new EducationalInstitution(getName(row), getType(row), foundationYear[row],
+                                          studentCount[row], rating[row]);
+    }
+
+    /**
+     * Creates objects for all rows
+     *
+     * @return array of new EducationalInstitution objects
+     */
+    public EducationalInstitution[] toArray() {
+        EducationalInstitution[] institutions = new EducationalInstitution[size];
+        for (int i = 0; i < size; i++) {
+            institutions[i] = get(i);
+        }
+        return institutions;
+    }
+
+    /**
+     * Creates objects for the given rows
+     *
+     * @param rows row indexes
+     * @return array of new EducationalInstitution objects
+     */
+    public EducationalInstitution[] toArray(int[] rows) {
+        EducationalInstitution[] institutions = new EducationalInstitution[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            institutions[i] = get(rows[i]);
+        }
+        return institutions;
+    }
+
+    /**
+     * Finds rows of institutions founded in the range of years (inclusive)
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @return row indexes in storage order
+     */
+    public int[] rowsFoundedBetween(int fromYear, int toYear) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (foundationYear[i] >= fromYear && foundationYear[i] <= toYear) {
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Finds rows of institutions with rating greater than given
+     *
+     * @param minRating rating that institutions must exceed
+     * @return row indexes in storage order
+     */
+    public int[] rowsWithRatingAbove(double minRating) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (rating[i] > minRating) {
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Finds rows of institutions of the type
+     *
+     * @param type institution type
+     * @return row indexes in storage order
+     */
+    public int[] rowsOfType(String type) {
+        int code = types.find(type);
+        if (code == InstitutionTypes.UNKNOWN_TYPE) {
+            return new int[0];
+        }
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (typeCode[i] == code) {
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Returns rows in order by foundation year (ascending) and rating (descending).
+     * The order is stable and the same as {@link InstitutionOrder#YEAR_RATING} gives.
+     *
+     * @return row indexes in sorted order
+     */
+    public int[] sortedRows() {
+        int[] order = InstitutionSorter.packedOrder(foundationYear, rating, size,
+                                                    size >= InstitutionSorter.PARALLEL_THRESHOLD);
+        if (order != null) {
+            return order;
+        }
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        Arrays.sort(rows, (a, b) -> InstitutionOrder.compare(foundationYear[a], rating[a],
+                                                             foundationYear[b], rating[b]));
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = rows[i];
+        }
+        return order;
+    }
+
+    /**
+     * Reorders rows by foundation year (ascending) and rating (descending)
+     */
+    public void sort() {
+        int[] order = sortedRows();
+        foundationYear = permute(foundationYear, order);
+        studentCount = permute(studentCount, order);
+        typeCode = permute(typeCode, order);
+        nameOffset = permute(nameOffset, order);
+        nameLength = permute(nameLength, order);
+        double[] sortedRating = new double[rating.length];
+        for (int i = 0; i < size; i++) {
+            sortedRating[i] = rating[order[i]];
+        }
+        rating = sortedRating;
+    }
+
+    private static int[] permute(int[] column, int[] order) {
+        int[] result = new int[column.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns total number of students in all rows
+     *
+     * @return sum of student counts
+     */
+    public long totalStudentCount() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += studentCount[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns average rating of all rows
+     *
+     * @return average rating, NaN for empty storage
+     */
+    public double averageRating() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += rating[i];
+        }
+        return size == 0 ? Double.NaN : sum / size;
+    }
+
+    /**
+     * Returns number of institutions founded in the range of years (inclusive)
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @return number of rows
+     */
+    public int countFoundedBetween(int fromYear, int toYear) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (foundationYear[i] >= fromYear && foundationYear[i] <= toYear) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the foundation year column (internal array, valid for the first {@link #size()} rows)
+     */
+    int[] foundationYearColumn() {
+        return foundationYear;
+    }
+
+    /**
+     * Returns the student count column (internal array, valid for the first {@link #size()} rows)
+     */
+    int[] studentCountColumn() {
+        return studentCount;
+    }
+
+    /**
+     * Returns the rating column (internal array, valid for the first {@link #size()} rows)
+     */
+    double[] ratingColumn() {
+        return rating;
+    }
+
+    /**
+     * Returns the type code column (internal array, valid for the first {@link #size()} rows)
+     */
+    int[] typeCodeColumn() {
+        return typeCode;
+    }
+
+    /**
+     * Returns the name offset column (internal array, valid for the first {@link #size()} rows)
+     */
+    int[] nameOffsetColumn() {
+        return nameOffset;
+    }
+
+    /**
+     * Returns the name length column, -1 for null names (internal array, valid for the first {@link #size()} rows)
+     */
+    int[] nameLengthColumn() {
+        return nameLength;
+    }
+
+    /**
+     * Returns the characters of all names (internal array, addressed by the name offset and length columns)
+     */
+    char[] nameChars() {
+        return nameChars;
+    }
+
+    /**
+     * Returns the type dictionary of the storage
+     */
+    TypeDictionary types() {
+        return types;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return row;
+    }
+}
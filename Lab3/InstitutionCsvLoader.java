@@ -0,0 +1,380 @@
+package Lab3;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming loader of educational institutions from CSV.
+ * Every record contains fields name,type,foundationYear,studentCount,rating;
+ * name and type may be enclosed in double quotes (a quote inside is written as two quotes,
+ * a quoted field may also contain line breaks).
+ * <p>
+ * The input is read through a fixed-size character buffer, which grows only for a record
+ * longer than the buffer (up to 1M characters), so memory does not depend on the file size.
+ * Fields are parsed directly from character ranges of the buffer:
+ * numbers without creating strings, types by matching against already seen type names,
+ * names are copied straight into {@link InstitutionColumns}.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionCsvLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FIELD_COUNT = 5;
+    /** Longest accepted record; a longer one is reported instead of growing the buffer further */
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+    /** Scanner state: at the first character of a field */
+    private static final int FIELD_START = 0;
+    /** Scanner state: inside an unquoted field */
+    private static final int UNQUOTED = 1;
+    /** Scanner state: inside a quoted field */
+    private static final int QUOTED = 2;
+    /** Scanner state: right after a quote inside a quoted field (closing quote or first of two) */
+    private static final int QUOTE_IN_QUOTED = 3;
+    /** Powers of ten that are represented exactly as double */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    /** Largest mantissa that is represented exactly as double */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Receiver of parsed rows
+     */
+    private interface RowConsumer {
+        void accept(char[] chars, int nameStart, int nameEnd, int typeCode,
+                    int foundationYear, int studentCount, double rating);
+    }
+
+    /** Whether the first line is a header and must be skipped */
+    private final boolean hasHeader;
+    /** Dictionary receiving the types of the current source */
+    private TypeDictionary dictionary;
+    /** Start and end of every field of the current line */
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    /**
+     * Creates a loader
+     *
+     * @param hasHeader whether the first line is a header and must be skipped
+     */
+    public InstitutionCsvLoader(boolean hasHeader) {
+        this.hasHeader = hasHeader;
+    }
+
+    /**
+     * Loads institutions from a UTF-8 CSV file into columnar storage
+     *
+     * @param file CSV file
+     * @return loaded institutions
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line has wrong format
+     */
+    public InstitutionColumns loadColumns(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8)) {
+            return loadColumns(reader);
+        }
+    }
+
+    /**
+     * Loads institutions from CSV into columnar storage
+     *
+     * @param reader source of CSV text (not closed by this method)
+     * @return loaded institutions
+     * @throws IOException if the source cannot be read
+     * @throws IllegalArgumentException if a line has wrong format
+     */
+    public InstitutionColumns loadColumns(Reader reader) throws IOException {
+        InstitutionColumns columns = new InstitutionColumns();
+        parse(reader, columns.types(), (chars, nameStart, nameEnd, typeCode, year, students, rating) ->
+            columns.add(chars, nameStart, nameEnd, typeCode, year, students, rating));
+        return columns;
+    }
+
+    /**
+     * Loads institutions from a UTF-8 CSV file into an array
+     *
+     * @param file CSV file
+     * @return array of loaded institutions
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line has wrong format
+     */
+    public EducationalInstitution[] load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads institutions from CSV into an array
+     *
+     * @param reader source of CSV text (not closed by this method)
+     * @return array of loaded institutions
+     * @throws IOException if the source cannot be read
+     * @throws IllegalArgumentException if a line has wrong format
+     */
+    public EducationalInstitution[] load(Reader reader) throws IOException {
+        List<EducationalInstitution> institutions = new ArrayList<>();
+        // Type names are shared by the loaded objects, codes are needed only while loading
+        TypeDictionary types = new TypeDictionary();
+        parse(reader, types, (chars, nameStart, nameEnd, typeCode, year, students, rating) ->
+            institutions.add(new EducationalInstitution(new String(chars, nameStart, nameEnd - nameStart),
+                                                        types.nameOf(typeCode),
+                                                        year, students, rating)));
+        return institutions.toArray(new EducationalInstitution[0]);
+    }
+
+    /**
+     * Reads the source record by record through the buffer and passes parsed rows to the consumer.
+     * A line break inside a quoted field belongs to the field, so the scanner tracks whether
+     * it is inside quotes; a quote opens a quoted field only as the first character of a field,
+     * the same as {@link #parseLine} accepts.
+     */
+    private void parse(Reader reader, TypeDictionary types, RowConsumer consumer) throws IOException {
+        dictionary = types;
+        char[] buffer = new char[BUFFER_SIZE];
+        int length = 0;
+        int scanned = 0;
+        int state = FIELD_START;
+        int lineNumber = 1;
+        int recordLine = 1;
+        boolean eof = false;
+
+        while (!eof) {
+            int read = reader.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                eof = true;
+            } else {
+                length += read;
+            }
+
+            int recordStart = 0;
+            for (int i = scanned; i < length; i++) {
+                char ch = buffer[i];
+                if (ch == '\n') {
+                    lineNumber++;
+                    if (state != QUOTED) {
+                        parseLine(buffer, recordStart, i, recordLine, consumer);
+                        recordStart = i + 1;
+                        recordLine = lineNumber;
+                        state = FIELD_START;
+                    }
+                } else if (state == QUOTED) {
+                    if (ch == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    }
+                } else if (ch == ',') {
+                    state = FIELD_START;
+                } else if (ch == '"' && state != UNQUOTED) {
+                    // Opens a field, or is the second of two quotes standing for one
+                    state = QUOTED;
+                } else {
+                    state = UNQUOTED;
+                }
+            }
+            if (eof && recordStart < length) {
+                parseLine(buffer, recordStart, length, recordLine, consumer);
+                recordStart = length;
+            }
+
+            // Move the incomplete record to the beginning of the buffer
+            length -= recordStart;
+            System.arraycopy(buffer, recordStart, buffer, 0, length);
+            scanned = length;
+            if (length == buffer.length) {
+                if (length >= MAX_RECORD_LENGTH) {
+                    throw lineError(recordLine, (state == QUOTED ? "unclosed quote, record" : "record")
+                                                + " is longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_RECORD_LENGTH));
+            }
+        }
+    }
+
+    private void parseLine(char[] chars, int start, int end, int lineNumber, RowConsumer consumer) {
+        if (end > start && chars[end - 1] == '\r') {
+            end--;
+        }
+        if (start == end || (hasHeader && lineNumber == 1)) {
+            return;
+        }
+
+        int field = 0;
+        int position = start;
+        while (true) {
+            if (field == FIELD_COUNT) {
+                throw lineError(lineNumber, "too many fields");
+            }
+            if (position < end && chars[position] == '"') {
+                position = parseQuoted(chars, position, end, field, lineNumber);
+            } else {
+                fieldStart[field] = position;
+                while (position < end && chars[position] != ',') {
+                    position++;
+                }
+                fieldEnd[field] = position;
+            }
+            field++;
+            if (position == end) {
+                break;
+            }
+            if (chars[position] != ',') {
+                throw lineError(lineNumber, "unexpected character after quoted field");
+            }
+            position++;
+        }
+        if (field != FIELD_COUNT) {
+            throw lineError(lineNumber, "expected " + FIELD_COUNT + " fields, found " + field);
+        }
+
+        consumer.accept(chars, fieldStart[0], fieldEnd[0],
+                        typeCode(chars, fieldStart[1], fieldEnd[1]),
+                        parseInt(chars, fieldStart[2], fieldEnd[2], lineNumber),
+                        parseInt(chars, fieldStart[3], fieldEnd[3], lineNumber),
+                        parseDouble(chars, fieldStart[4], fieldEnd[4], lineNumber));
+    }
+
+    /**
+     * Parses a quoted field, removing escaping quotes in place
+     *
+     * @return position after the closing quote
+     */
+    private int parseQuoted(char[] chars, int position, int end, int field, int lineNumber) {
+        int read = position + 1;
+        int write = read;
+        fieldStart[field] = read;
+        while (true) {
+            if (read == end) {
+                throw lineError(lineNumber, "unclosed quote");
+            }
+            char ch = chars[read++];
+            if (ch == '"') {
+                if (read < end && chars[read] == '"') {
+                    read++;
+                } else {
+                    break;
+                }
+            }
+            chars[write++] = ch;
+        }
+        fieldEnd[field] = write;
+        return read;
+    }
+
+    /**
+     * Returns type code for a character range, creating a String only for a type seen first time
+     */
+    private int typeCode(char[] chars, int start, int end) {
+        return dictionary.codeOf(chars, start, end);
+    }
+
+    /**
+     * Parses a decimal integer from a character range
+     */
+    static int parseInt(char[] chars, int start, int end, int lineNumber) {
+        start = skipSpaces(chars, start, end);
+        end = trimSpaces(chars, start, end);
+        boolean negative = start < end && chars[start] == '-';
+        if (start < end && (chars[start] == '-' || chars[start] == '+')) {
+            start++;
+        }
+        if (start == end) {
+            throw lineError(lineNumber, "number expected");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw lineError(lineNumber, "invalid integer '" + new String(chars, start, end - start) + "'");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw lineError(lineNumber, "integer is out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw lineError(lineNumber, "integer is out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal number from a character range.
+     * Plain numbers like "95.5" are converted without creating a String; the result
+     * is the same as {@link Double#parseDouble} gives, because both the mantissa and
+     * the power of ten are exact doubles and are divided once.
+     * Other forms (exponent, too many digits) are passed to {@link Double#parseDouble}.
+     */
+    static double parseDouble(char[] chars, int start, int end, int lineNumber) {
+        start = skipSpaces(chars, start, end);
+        end = trimSpaces(chars, start, end);
+        int position = start;
+        boolean negative = position < end && chars[position] == '-';
+        if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        boolean simple = position < end;
+        for (; position < end && simple; position++) {
+            char ch = chars[position];
+            if (ch >= '0' && ch <= '9') {
+                mantissa = mantissa * 10 + (ch - '0');
+                digits++;
+                if (point) {
+                    fractionDigits++;
+                }
+                simple = mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length;
+            } else if (ch == '.' && !point) {
+                point = true;
+            } else {
+                simple = false;
+            }
+        }
+        if (simple && digits > 0) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(chars, start, end - start));
+        } catch (NumberFormatException e) {
+            throw lineError(lineNumber, "invalid number '" + new String(chars, start, end - start) + "'");
+        }
+    }
+
+    private static int skipSpaces(char[] chars, int start, int end) {
+        while (start < end && chars[start] == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimSpaces(char[] chars, int start, int end) {
+        while (end > start && chars[end - 1] == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static IllegalArgumentException lineError(int lineNumber, String message) {
+        return new IllegalArgumentException("Line " + lineNumber + ": " + message);
+    }
+}
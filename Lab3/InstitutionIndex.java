@@ -0,0 +1,76 @@
+package Lab3;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index for searching identical institutions in an array.
+ * Exact-match lookups go through a hash index built once for the array;
+ * arrays sorted by {@link InstitutionOrder#YEAR_RATING} can also be searched
+ * with binary search without building the index.
+ * Both searches return the first position of an equal object, like a sequential scan.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionIndex {
+    /** Position of the first occurrence of every institution */
+    private final Map<EducationalInstitution, Integer> positions;
+
+    /**
+     * Builds the hash index for the array.
+     * The index is a snapshot: it must be rebuilt if the array or its objects change.
+     *
+     * @param institutions array to index
+     * @throws IllegalArgumentException if the array is null
+     */
+    public InstitutionIndex(EducationalInstitution[] institutions) {
+        if (institutions == null) {
+            throw new IllegalArgumentException("Institutions array cannot be null");
+        }
+        this.positions = new HashMap<>(Math.max(16, (int) (institutions.length / 0.75f) + 1));
+        for (int i = 0; i < institutions.length; i++) {
+            if (institutions[i] != null) {
+                positions.putIfAbsent(institutions[i], i);
+            }
+        }
+    }
+
+    /**
+     * Searches for identical object in the indexed array
+     *
+     * @param target object to search for
+     * @return index of found object or -1 if not found
+     */
+    public int indexOf(EducationalInstitution target) {
+        Integer position = positions.get(target);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Searches for identical object in an array sorted by {@link InstitutionOrder#YEAR_RATING}.
+     * Binary search finds the range of objects with the same year and rating,
+     * which is then checked with equals.
+     *
+     * @param sorted sorted array to search in
+     * @param target object to search for
+     * @return index of found object or -1 if not found
+     */
+    public static int binarySearch(EducationalInstitution[] sorted, EducationalInstitution target) {
+        if (target == null) {
+            return -1;
+        }
+        int year = target.getFoundationYear();
+        double rating = target.getRating();
+        for (int i = InstitutionOrder.lowerBound(sorted, year, rating); i < sorted.length; i++) {
+            EducationalInstitution current = sorted[i];
+            if (InstitutionOrder.compare(current.getFoundationYear(), current.getRating(),
+                                         year, rating) != 0) {
+                break;
+            }
+            if (current.equals(target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,226 @@
+package Lab3;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Case-insensitive prefix index over names of educational institutions.
+ * Names are stored in a radix tree (a trie with merged single-child chains) whose leaves
+ * and inner nodes hold ids of institutions with exactly that name. Every inner node
+ * of the tree has at least two children or ids, so a prefix query costs
+ * O(prefix length + number of matches). Institutions can be added at any time.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionNameIndex {
+    private static final char[] EMPTY_LABEL = new char[0];
+
+    /**
+     * Node of the radix tree
+     */
+    private static final class Node {
+        /** Characters on the edge leading to this node */
+        char[] label;
+        /** First characters of child labels, sorted */
+        char[] childKeys = EMPTY_LABEL;
+        Node[] children = new Node[0];
+        /** Ids of institutions whose name ends at this node */
+        int[] ids;
+        int idCount;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(childKeys, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        void putChild(Node child) {
+            char key = child.label[0];
+            int position = Arrays.binarySearch(childKeys, key);
+            if (position >= 0) {
+                children[position] = child;
+                return;
+            }
+            position = -position - 1;
+            char[] keys = new char[childKeys.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(childKeys, 0, keys, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            keys[position] = key;
+            nodes[position] = child;
+            System.arraycopy(childKeys, position, keys, position + 1, childKeys.length - position);
+            System.arraycopy(children, position, nodes, position + 1, children.length - position);
+            childKeys = keys;
+            children = nodes;
+        }
+
+        void addId(int id) {
+            if (ids == null) {
+                ids = new int[1];
+            } else if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, idCount * 2);
+            }
+            ids[idCount++] = id;
+        }
+    }
+
+    private final Node root = new Node(EMPTY_LABEL);
+    /** Number of indexed names */
+    private int size;
+
+    /**
+     * Builds the index for an array; ids are positions in the array
+     *
+     * @param institutions institutions to index
+     * @return name index
+     */
+    public static InstitutionNameIndex of(EducationalInstitution[] institutions) {
+        InstitutionNameIndex index = new InstitutionNameIndex();
+        for (int i = 0; i < institutions.length; i++) {
+            if (institutions[i] != null) {
+                index.add(i, institutions[i].getName());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a name to the index
+     *
+     * @param id id returned for the name by searches
+     * @param name institution name (null names are not indexed)
+     */
+    public void add(int id, String name) {
+        if (name == null) {
+            return;
+        }
+        char[] key = normalize(name);
+        Node node = root;
+        int i = 0;
+        while (i < key.length) {
+            Node child = node.child(key[i]);
+            if (child == null) {
+                Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+                node.putChild(leaf);
+                node = leaf;
+                break;
+            }
+            int common = commonLength(child.label, key, i);
+            if (common < child.label.length) {
+                // Split the edge at the end of the common part
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.putChild(child);
+                node.putChild(middle);
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        node.addId(id);
+        size++;
+    }
+
+    /**
+     * Finds institutions whose name starts with the prefix, ignoring case
+     *
+     * @param prefix beginning of the name
+     * @return ids ordered by name, ids of equal names in order of addition
+     */
+    public int[] findByPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        char[] key = normalize(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length) {
+            Node child = node.child(key[i]);
+            if (child == null) {
+                return new int[0];
+            }
+            int common = commonLength(child.label, key, i);
+            if (i + common < key.length && common < child.label.length) {
+                return new int[0];
+            }
+            node = child;
+            i += common;
+        }
+        return collect(node);
+    }
+
+    /**
+     * Finds institutions whose name is equal to the given one, ignoring case
+     *
+     * @param name institution name
+     * @return ids in order of addition
+     */
+    public int[] findByName(String name) {
+        if (name == null) {
+            return new int[0];
+        }
+        char[] key = normalize(name);
+        Node node = root;
+        int i = 0;
+        while (i < key.length) {
+            Node child = node.child(key[i]);
+            if (child == null || commonLength(child.label, key, i) < child.label.length) {
+                return new int[0];
+            }
+            node = child;
+            i += child.label.length;
+        }
+        return node.ids == null ? new int[0] : Arrays.copyOf(node.ids, node.idCount);
+    }
+
+    /**
+     * Returns number of indexed names
+     *
+     * @return number of names
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int[] collect(Node start) {
+        int[] result = new int[16];
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node.idCount > 0) {
+                if (count + node.idCount > result.length) {
+                    result = Arrays.copyOf(result, Math.max(result.length * 2, count + node.idCount));
+                }
+                System.arraycopy(node.ids, 0, result, count, node.idCount);
+                count += node.idCount;
+            }
+            for (int c = node.children.length - 1; c >= 0; c--) {
+                stack.push(node.children[c]);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int commonLength(char[] label, char[] key, int keyStart) {
+        int limit = Math.min(label.length, key.length - keyStart);
+        int i = 0;
+        while (i < limit && label[i] == key[keyStart + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char[] normalize(String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,57 @@
+package Lab3;
+
+import java.util.Comparator;
+
+/**
+ * Ordering of educational institutions used in laboratory work #3:
+ * by foundation year (ascending), and in case of same year - by rating (descending).
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class InstitutionOrder {
+    /** Comparator by foundation year (ascending) and rating (descending) */
+    public static final Comparator<EducationalInstitution> YEAR_RATING =
+        Comparator.comparingInt(EducationalInstitution::getFoundationYear)
+                  .thenComparing(Comparator.comparingDouble(
+                      EducationalInstitution::getRating).reversed());
+
+    private InstitutionOrder() {
+    }
+
+    /**
+     * Compares two (year, rating) keys in the same way as {@link #YEAR_RATING}
+     *
+     * @param year1 foundation year of the first institution
+     * @param rating1 rating of the first institution
+     * @param year2 foundation year of the second institution
+     * @param rating2 rating of the second institution
+     * @return negative, zero or positive number
+     */
+    public static int compare(int year1, double rating1, int year2, double rating2) {
+        int result = Integer.compare(year1, year2);
+        return result != 0 ? result : Double.compare(rating2, rating1);
+    }
+
+    /**
+     * Finds the first position in a sorted array whose key is not less than the given key
+     *
+     * @param sorted array sorted by {@link #YEAR_RATING}
+     * @param year foundation year to search for
+     * @param rating rating to search for
+     * @return insertion point of the key (from 0 to sorted.length)
+     */
+    public static int lowerBound(EducationalInstitution[] sorted, int year, double rating) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            EducationalInstitution current = sorted[mid];
+            if (compare(current.getFoundationYear(), current.getRating(), year, rating) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
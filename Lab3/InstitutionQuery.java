@@ -0,0 +1,305 @@
+package Lab3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query engine over a collection of educational institutions.
+ * Keeps the institutions sorted by foundation year (ascending) and rating (descending)
+ * together with a primitive year column for binary search, and partitions by type
+ * sorted by rating (descending). Range queries by year and top-K queries by rating
+ * then do not need a full scan and sort of the collection.
+ * <p>
+ * Institutions with equal rating are returned in the year-rating order.
+ * The engine is a snapshot: it must be rebuilt after the institutions change.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionQuery {
+    /** Institutions sorted by {@link InstitutionOrder#YEAR_RATING} */
+    private final EducationalInstitution[] byYear;
+    /** Foundation years of {@link #byYear} */
+    private final int[] years;
+    /** Positions in {@link #byYear} sorted by rating (descending) */
+    private final int[] byRating;
+    /** Institutions of every type sorted by rating (descending) */
+    private final Map<String, EducationalInstitution[]> byType;
+
+    /**
+     * Builds the query engine
+     *
+     * @param institutions institutions to query
+     * @throws IllegalArgumentException if the collection is null or contains null
+     */
+    public InstitutionQuery(Collection<EducationalInstitution> institutions) {
+        this(institutions == null ? null : institutions.toArray(new EducationalInstitution[0]));
+    }
+
+    /**
+     * Builds the query engine. The array is copied and not changed.
+     *
+     * @param institutions institutions to query
+     * @throws IllegalArgumentException if the array is null or contains null
+     */
+    public InstitutionQuery(EducationalInstitution[] institutions) {
+        if (institutions == null) {
+            throw new IllegalArgumentException("Institutions cannot be null");
+        }
+        for (EducationalInstitution institution : institutions) {
+            if (institution == null) {
+                throw new IllegalArgumentException("Institutions cannot contain null");
+            }
+        }
+
+        this.byYear = institutions.clone();
+        InstitutionSorter.sort(byYear);
+
+        this.years = new int[byYear.length];
+        for (int i = 0; i < byYear.length; i++) {
+            years[i] = byYear[i].getFoundationYear();
+        }
+
+        // Packed keys with equal years sort by rating (descending) and then by position,
+        // which keeps year-rating order for equal ratings
+        double[] ratings = new double[byYear.length];
+        for (int i = 0; i < byYear.length; i++) {
+            ratings[i] = byYear[i].getRating();
+        }
+        this.byRating = InstitutionSorter.packedOrder(new int[byYear.length], ratings, byYear.length, false);
+        Map<String, List<EducationalInstitution>> partitions = new LinkedHashMap<>();
+        for (int position : byRating) {
+            EducationalInstitution institution = byYear[position];
+            partitions.computeIfAbsent(institution.getType(), type -> new ArrayList<>()).add(institution);
+        }
+
+        this.byType = new HashMap<>();
+        for (Map.Entry<String, List<EducationalInstitution>> entry : partitions.entrySet()) {
+            byType.put(entry.getKey(), entry.getValue().toArray(new EducationalInstitution[0]));
+        }
+    }
+
+    /**
+     * Returns number of institutions in the engine
+     *
+     * @return number of institutions
+     */
+    public int size() {
+        return byYear.length;
+    }
+
+    /**
+     * Finds institutions founded in the range of years (inclusive)
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @return unmodifiable list in year-rating order
+     */
+    public List<EducationalInstitution> foundedBetween(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            return Collections.emptyList();
+        }
+        int from = yearLowerBound(fromYear, 0);
+        int to = toYear == Integer.MAX_VALUE ? years.length : yearLowerBound(toYear + 1, from);
+        return Collections.unmodifiableList(Arrays.asList(byYear).subList(from, to));
+    }
+
+    /**
+     * Finds institutions founded in the range of years (inclusive) with rating greater than given.
+     * Inside every year institutions are sorted by rating (descending), so only
+     * matching institutions are visited and the rest of the year is skipped with binary search.
+     * NaN ratings come first in a year and never match, so they are skipped.
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @param minRating rating that institutions must exceed
+     * @return unmodifiable list in year-rating order
+     */
+    public List<EducationalInstitution> foundedBetween(int fromYear, int toYear, double minRating) {
+        if (fromYear > toYear) {
+            return Collections.emptyList();
+        }
+        List<EducationalInstitution> result = new ArrayList<>();
+        int i = yearLowerBound(fromYear, 0);
+        while (i < years.length && years[i] <= toYear) {
+            int year = years[i];
+            while (i < years.length && years[i] == year && Double.isNaN(byYear[i].getRating())) {
+                i++;
+            }
+            while (i < years.length && years[i] == year && byYear[i].getRating() > minRating) {
+                result.add(byYear[i++]);
+            }
+            if (year == Integer.MAX_VALUE) {
+                break;
+            }
+            i = yearLowerBound(year + 1, i);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Finds institutions with the highest rating
+     *
+     * @param k maximal number of institutions to return
+     * @return unmodifiable list sorted by rating (descending)
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<EducationalInstitution> topByRating(int k) {
+        checkLimit(k);
+        int count = Math.min(k, byRating.length);
+        List<EducationalInstitution> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(byYear[byRating[i]]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Finds institutions of the type with the highest rating
+     *
+     * @param type institution type
+     * @param k maximal number of institutions to return
+     * @return unmodifiable list sorted by rating (descending), empty for unknown type
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<EducationalInstitution> topByRating(String type, int k) {
+        checkLimit(k);
+        EducationalInstitution[] partition = byType.get(type);
+        if (partition == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(
+            Arrays.asList(partition).subList(0, Math.min(k, partition.length)));
+    }
+
+    /**
+     * Finds institutions with the highest rating for every type
+     *
+     * @param k maximal number of institutions to return for every type
+     * @return map from type to list sorted by rating (descending)
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Map<String, List<EducationalInstitution>> topByRatingPerType(int k) {
+        checkLimit(k);
+        Map<String, List<EducationalInstitution>> result = new HashMap<>();
+        for (String type : byType.keySet()) {
+            result.put(type, topByRating(type, k));
+        }
+        return result;
+    }
+
+    /**
+     * Finds institutions founded in the range of years (inclusive) with the highest rating.
+     * Uses a primitive heap of positions bounded by k, so only k candidates are kept during the scan of the range.
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @param k maximal number of institutions to return
+     * @return unmodifiable list sorted by rating (descending)
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<EducationalInstitution> topByRating(int fromYear, int toYear, int k) {
+        checkLimit(k);
+        if (k == 0 || fromYear > toYear) {
+            return Collections.emptyList();
+        }
+        int from = yearLowerBound(fromYear, 0);
+        int to = toYear == Integer.MAX_VALUE ? years.length : yearLowerBound(toYear + 1, from);
+
+        // Heap of positions whose root is the worst of the kept candidates
+        int[] heap = new int[Math.min(k, to - from)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++);
+            } else if (ranksBefore(i, heap[0])) {
+                heap[0] = i;
+                siftDown(heap, 0, size);
+            }
+        }
+
+        // Removing the worst candidate each time fills the result from the end
+        EducationalInstitution[] result = new EducationalInstitution[size];
+        while (size > 0) {
+            result[--size] = byYear[heap[0]];
+            heap[0] = heap[size];
+            siftDown(heap, 0, size);
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    /**
+     * Order of top-K results: rating descending, then position in year-rating order
+     *
+     * @return true if the institution at position a goes before the one at position b
+     */
+    private boolean ranksBefore(int a, int b) {
+        int compared = Double.compare(byYear[b].getRating(), byYear[a].getRating());
+        return compared != 0 ? compared < 0 : a < b;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int position = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(heap[parent], position)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = position;
+    }
+
+    private void siftDown(int[] heap, int index, int size) {
+        int position = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(position, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = position;
+    }
+
+    /**
+     * Finds the first position starting from which all years are not less than given
+     *
+     * @param year year to search for
+     * @param from position to start from
+     * @return position from the range [from, years.length]
+     */
+    private int yearLowerBound(int year, int from) {
+        int low = from;
+        int high = years.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (years[mid] < year) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void checkLimit(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of results cannot be negative: " + k);
+        }
+    }
+}
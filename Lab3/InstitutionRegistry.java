@@ -0,0 +1,381 @@
+package Lab3;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent registry of educational institutions kept in order by foundation year (ascending)
+ * and rating (descending); institutions with equal year and rating keep the order of registration.
+ * <p>
+ * Institutions are stored as {@link ImmutableInstitution} copies in a {@link ConcurrentSkipListMap},
+ * so an update moves one entry instead of re-sorting. Writers are serialized with a lock,
+ * readers never lock. Every write gets a new version number; an entry remembers the versions
+ * in which it was added and removed, so a {@link Snapshot} sees exactly the entries of the
+ * version it was opened at, while writers continue. Removed entries are dropped from the map
+ * once no open snapshot can see them.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionRegistry {
+
+    /**
+     * Position of an entry in the sorted map
+     */
+    private static final class Key implements Comparable<Key> {
+        final int foundationYear;
+        final double rating;
+        final long id;
+        final long version;
+
+        Key(int foundationYear, double rating, long id, long version) {
+            this.foundationYear = foundationYear;
+            this.rating = rating;
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = InstitutionOrder.compare(foundationYear, rating, other.foundationYear, other.rating);
+            if (result == 0) {
+                result = Long.compare(id, other.id);
+            }
+            return result != 0 ? result : Long.compare(version, other.version);
+        }
+    }
+
+    /**
+     * Version of an institution visible from version {@link #added} until {@link #removed}
+     */
+    private static final class Entry {
+        final Key key;
+        final ImmutableInstitution institution;
+        final long added;
+        /** Version in which the entry was removed, or {@link Long#MAX_VALUE} while it is current */
+        volatile long removed = Long.MAX_VALUE;
+
+        Entry(Key key, ImmutableInstitution institution) {
+            this.key = key;
+            this.institution = institution;
+            this.added = key.version;
+        }
+
+        boolean isVisibleAt(long version) {
+            return added <= version && version < removed;
+        }
+    }
+
+    /** All entries that are current or can be seen by an open snapshot */
+    private final ConcurrentSkipListMap<Key, Entry> entries = new ConcurrentSkipListMap<>();
+    /** Current entry of every registered institution */
+    private final Map<Long, Entry> current = new ConcurrentHashMap<>();
+    /** Open snapshots ordered by version */
+    private final ConcurrentSkipListSet<Snapshot> openSnapshots = new ConcurrentSkipListSet<>();
+    /** Removed entries in order of removal, waiting to be dropped from {@link #entries} */
+    private final Queue<Entry> removedEntries = new ArrayDeque<>();
+    /** Lock serializing writers */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** Set by a closed snapshot; the next holder of {@link #writeLock} purges removed entries */
+    private volatile boolean purgePending;
+    /** Source of institution ids */
+    private final AtomicLong nextId = new AtomicLong();
+    /** Source of snapshot sequence numbers */
+    private final AtomicLong nextSnapshot = new AtomicLong();
+    /** Latest version visible to readers */
+    private volatile long version;
+    /** Number of current institutions */
+    private volatile int size;
+
+    /**
+     * Registers an institution
+     *
+     * @param institution institution to register (its current field values are copied)
+     * @return id of the registered institution
+     * @throws IllegalArgumentException if the institution is null
+     */
+    public long add(EducationalInstitution institution) {
+        ImmutableInstitution value = toImmutable(institution);
+        writeLock.lock();
+        try {
+            long id = nextId.getAndIncrement();
+            long newVersion = version + 1;
+            Entry entry = insert(id, value, newVersion);
+            current.put(id, entry);
+            size++;
+            version = newVersion;
+            return id;
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    /**
+     * Replaces the field values of a registered institution
+     *
+     * @param id id of the institution
+     * @param institution new field values
+     * @return true if the institution was updated, false if the id is not registered
+     * @throws IllegalArgumentException if the institution is null
+     */
+    public boolean update(long id, EducationalInstitution institution) {
+        ImmutableInstitution value = toImmutable(institution);
+        writeLock.lock();
+        try {
+            Entry old = current.get(id);
+            if (old == null) {
+                return false;
+            }
+            long newVersion = version + 1;
+            old.removed = newVersion;
+            removedEntries.add(old);
+            current.put(id, insert(id, value, newVersion));
+            version = newVersion;
+            purge();
+            return true;
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    /**
+     * Removes a registered institution
+     *
+     * @param id id of the institution
+     * @return true if the institution was removed, false if the id is not registered
+     */
+    public boolean remove(long id) {
+        writeLock.lock();
+        try {
+            Entry old = current.remove(id);
+            if (old == null) {
+                return false;
+            }
+            long newVersion = version + 1;
+            old.removed = newVersion;
+            removedEntries.add(old);
+            size--;
+            version = newVersion;
+            purge();
+            return true;
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    private Entry insert(long id, ImmutableInstitution value, long newVersion) {
+        Entry entry = new Entry(new Key(value.getFoundationYear(), value.getRating(), id, newVersion), value);
+        entries.put(entry.key, entry);
+        return entry;
+    }
+
+    private static ImmutableInstitution toImmutable(EducationalInstitution institution) {
+        if (institution == null) {
+            throw new IllegalArgumentException("Institution cannot be null");
+        }
+        return ImmutableInstitution.of(institution);
+    }
+
+    /**
+     * Releases the write lock and runs a purge requested by a snapshot closed meanwhile
+     */
+    private void unlockWriter() {
+        writeLock.unlock();
+        purgeIfPending();
+    }
+
+    /**
+     * Purges removed entries if a closed snapshot asked for it and the write lock is free.
+     * If the lock is busy, its holder sees the flag after releasing the lock,
+     * so a request is never lost and a closing snapshot never waits for writers.
+     */
+    private void purgeIfPending() {
+        while (purgePending && writeLock.tryLock()) {
+            try {
+                purgePending = false;
+                purge();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops removed entries that no open snapshot can see. Must be called under the write lock.
+     */
+    private void purge() {
+        long oldestVisible = version;
+        if (!openSnapshots.isEmpty()) {
+            try {
+                oldestVisible = Math.min(oldestVisible, openSnapshots.first().version);
+            } catch (NoSuchElementException e) {
+                // the last snapshot was closed concurrently
+            }
+        }
+        while (!removedEntries.isEmpty() && removedEntries.peek().removed <= oldestVisible) {
+            Entry entry = removedEntries.poll();
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Returns the current value of a registered institution
+     *
+     * @param id id of the institution
+     * @return institution or null if the id is not registered
+     */
+    public ImmutableInstitution get(long id) {
+        Entry entry = current.get(id);
+        return entry != null ? entry.institution : null;
+    }
+
+    /**
+     * Returns number of registered institutions
+     *
+     * @return number of institutions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Opens a point-in-time view of the registry.
+     * The snapshot must be closed to allow removed entries to be dropped.
+     *
+     * @return open snapshot
+     */
+    public Snapshot snapshot() {
+        while (true) {
+            long snapshotVersion = version;
+            Snapshot snapshot = new Snapshot(snapshotVersion, nextSnapshot.getAndIncrement());
+            openSnapshots.add(snapshot);
+            // A writer that purged before seeing this snapshot has also published a newer version
+            if (version == snapshotVersion) {
+                return snapshot;
+            }
+            openSnapshots.remove(snapshot);
+        }
+    }
+
+    /**
+     * Returns all institutions in sorted order as of the moment of the call
+     *
+     * @return list of institutions
+     */
+    public List<ImmutableInstitution> toSortedList() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.toList();
+        }
+    }
+
+    /**
+     * Point-in-time view of the registry.
+     * Iteration returns institutions in sorted order exactly as they were at the moment
+     * the snapshot was opened, regardless of concurrent updates.
+     */
+    public final class Snapshot implements Iterable<ImmutableInstitution>, AutoCloseable, Comparable<Snapshot> {
+        private final long version;
+        private final long sequence;
+
+        private Snapshot(long version, long sequence) {
+            this.version = version;
+            this.sequence = sequence;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public Iterator<ImmutableInstitution> iterator() {
+            return visible(entries);
+        }
+
+        /**
+         * Returns institutions founded in the range of years (inclusive) in sorted order
+         *
+         * @param fromYear first year of the range
+         * @param toYear last year of the range
+         * @return iterator over the institutions
+         */
+        public Iterator<ImmutableInstitution> foundedBetween(int fromYear, int toYear) {
+            if (fromYear > toYear) {
+                return visible(new ConcurrentSkipListMap<>());
+            }
+            Key from = new Key(fromYear, Double.NaN, Long.MIN_VALUE, Long.MIN_VALUE);
+            NavigableMap<Key, Entry> range = toYear == Integer.MAX_VALUE
+                ? entries.tailMap(from, true)
+                : entries.subMap(from, true, new Key(toYear + 1, Double.NaN, Long.MIN_VALUE, Long.MIN_VALUE), false);
+            return visible(range);
+        }
+
+        /**
+         * Copies the institutions of the snapshot to a list
+         *
+         * @return list in sorted order
+         */
+        public List<ImmutableInstitution> toList() {
+            List<ImmutableInstitution> result = new ArrayList<>();
+            for (ImmutableInstitution institution : this) {
+                result.add(institution);
+            }
+            return result;
+        }
+
+        private Iterator<ImmutableInstitution> visible(NavigableMap<Key, Entry> map) {
+            Iterator<Entry> source = map.values().iterator();
+            return new Iterator<>() {
+                private Entry next = advance();
+
+                private Entry advance() {
+                    while (source.hasNext()) {
+                        Entry entry = source.next();
+                        if (entry.isVisibleAt(version)) {
+                            return entry;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public ImmutableInstitution next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    ImmutableInstitution result = next.institution;
+                    next = advance();
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (openSnapshots.remove(this)) {
+                purgePending = true;
+                purgeIfPending();
+            }
+        }
+
+        @Override
+        public int compareTo(Snapshot other) {
+            int result = Long.compare(version, other.version);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
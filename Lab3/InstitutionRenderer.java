@@ -0,0 +1,216 @@
+package Lab3;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Renders educational institutions as text without {@link String#format}.
+ * Output is the same as the former format
+ * {@code "EducationalInstitution{name='%s', type='%s', foundationYear=%d, studentCount=%d, rating=%.2f}"}
+ * in the default format locale, but is appended directly into a reusable buffer.
+ * The rating is formatted by hand when it has at most two fraction digits
+ * (the usual case); other values and locales with non-ASCII digits fall back to the formatter.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class InstitutionRenderer {
+    /** Size of the buffer rows are rendered into before writing */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /**
+     * Formatting symbols of a locale
+     */
+    private static final class Symbols {
+        final Locale locale;
+        final char decimalSeparator;
+        final boolean asciiDigits;
+
+        Symbols(Locale locale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            this.locale = locale;
+            this.decimalSeparator = symbols.getDecimalSeparator();
+            this.asciiDigits = symbols.getZeroDigit() == '0';
+        }
+    }
+
+    /**
+     * Destination of rendered characters
+     */
+    private interface CharSink {
+        void write(char[] chars, int length) throws IOException;
+    }
+
+    /** Symbols of the last used default locale */
+    private static volatile Symbols symbols = new Symbols(Locale.getDefault(Locale.Category.FORMAT));
+
+    private InstitutionRenderer() {
+    }
+
+    private static Symbols symbols() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Symbols current = symbols;
+        if (current.locale != locale) {
+            current = new Symbols(locale);
+            symbols = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns text representation of an institution
+     *
+     * @param name name of the institution
+     * @param type type of the institution
+     * @param foundationYear foundation year
+     * @param studentCount number of students
+     * @param rating rating
+     * @return text representation
+     */
+    public static String toString(String name, String type, int foundationYear,
+                                  int studentCount, double rating) {
+        return appendTo(new StringBuilder(128), name, type, foundationYear, studentCount, rating).toString();
+    }
+
+    /**
+     * Appends text representation of an institution to the buffer
+     *
+     * @param sb buffer to append to
+     * @param institution institution to render
+     * @return the buffer
+     */
+    public static StringBuilder appendTo(StringBuilder sb, EducationalInstitution institution) {
+        return appendTo(sb, institution.getName(), institution.getType(), institution.getFoundationYear(),
+                        institution.getStudentCount(), institution.getRating());
+    }
+
+    /**
+     * Appends text representation of an institution to the buffer
+     *
+     * @param sb buffer to append to
+     * @param name name of the institution
+     * @param type type of the institution
+     * @param foundationYear foundation year
+     * @param studentCount number of students
+     * @param rating rating
+     * @return the buffer
+     */
+    public static StringBuilder appendTo(StringBuilder sb, String name, String type, int foundationYear,
+                                         int studentCount, double rating) {
+        Symbols current = symbols();
+        if (!current.asciiDigits) {
+            return sb.append(String.format("EducationalInstitution{name='%s', type='%s', foundationYear=%d, " +
+                                           "studentCount=%d, rating=%.2f}",
+                                           name, type, foundationYear, studentCount, rating));
+        }
+        sb.append("EducationalInstitution{name='").append(name)
+          .append("', type='").append(type)
+          .append("', foundationYear=").append(foundationYear)
+          .append(", studentCount=").append(studentCount)
+          .append(", rating=");
+        appendRating(sb, rating, current);
+        return sb.append('}');
+    }
+
+    /**
+     * Appends a number with two fraction digits, as "%.2f" does.
+     * Values that are not exactly representable with two fraction digits are passed
+     * to the formatter, because it rounds the shortest decimal representation half-up.
+     */
+    private static void appendRating(StringBuilder sb, double rating, Symbols current) {
+        if (Math.abs(rating) < 1e9) {
+            long hundredths = Math.round(rating * 100);
+            if (hundredths / 100.0 == rating) {
+                if (rating < 0 || (rating == 0 && 1 / rating < 0)) {
+                    sb.append('-');
+                    hundredths = -hundredths;
+                }
+                long fraction = hundredths % 100;
+                sb.append(hundredths / 100).append(current.decimalSeparator);
+                if (fraction < 10) {
+                    sb.append('0');
+                }
+                sb.append(fraction);
+                return;
+            }
+        }
+        sb.append(String.format("%.2f", rating));
+    }
+
+    /**
+     * Writes array of institutions, one per line as "[index] institution".
+     * Rows are rendered into a reusable character buffer, which is written to a {@link Writer}
+     * as a character range, so no String is created per row; the writer is flushed at the end.
+     *
+     * @param out destination
+     * @param institutions array to write
+     * @throws IOException if the destination fails
+     */
+    public static void printArray(Appendable out, EducationalInstitution[] institutions) throws IOException {
+        if (out instanceof Writer) {
+            Writer writer = (Writer) out;
+            printArray((chars, length) -> writer.write(chars, 0, length), institutions);
+            writer.flush();
+        } else {
+            printArray((chars, length) -> out.append(CharBuffer.wrap(chars, 0, length)), institutions);
+        }
+    }
+
+    /**
+     * Prints array of institutions, one per line as "[index] institution".
+     * Rows are rendered into a reusable character buffer, which is printed as a character array
+     * in the encoding of the stream, so no String is created per row; the stream is flushed at the end.
+     *
+     * @param out destination stream
+     * @param institutions array to print
+     */
+    public static void printArray(PrintStream out, EducationalInstitution[] institutions) {
+        try {
+            // Only the last, partly filled buffer is copied
+            printArray((chars, length) -> out.print(length == chars.length ? chars : Arrays.copyOf(chars, length)),
+                       institutions);
+        } catch (IOException e) {
+            // PrintStream does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        out.flush();
+    }
+
+    private static void printArray(CharSink out, EducationalInstitution[] institutions) throws IOException {
+        String lineSeparator = System.lineSeparator();
+        StringBuilder line = new StringBuilder(160);
+        char[] buffer = new char[BUFFER_SIZE];
+        int used = 0;
+        for (int i = 0; i < institutions.length; i++) {
+            line.setLength(0);
+            line.append('[').append(i).append("] ");
+            if (institutions[i] == null) {
+                line.append("null");
+            } else {
+                appendTo(line, institutions[i]);
+            }
+            line.append(lineSeparator);
+
+            // A row may be split between two writes of the buffer
+            int copied = 0;
+            while (copied < line.length()) {
+                int count = Math.min(buffer.length - used, line.length() - copied);
+                line.getChars(copied, copied + count, buffer, used);
+                used += count;
+                copied += count;
+                if (used == buffer.length) {
+                    out.write(buffer, used);
+                    used = 0;
+                }
+            }
+        }
+        if (used > 0) {
+            out.write(buffer, used);
+        }
+    }
+}
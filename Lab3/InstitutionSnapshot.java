@@ -0,0 +1,372 @@
+package Lab3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binary snapshot of an institution dataset sorted by foundation year (ascending)
+ * and rating (descending).
+ * <p>
+ * File layout (little-endian):
+ * <pre>
+ * header      magic, version, row count, type count, name char count, type char count (int),
+ *             padding to 32 bytes
+ * rating      double[rows]
+ * year        int[rows]
+ * students    int[rows]
+ * type        int[rows]   index in the type table
+ * nameEnd     int[rows]   end offset of the name in the name heap, ~end for null name
+ * typeEnd     int[types]  end offset of the type name in the type heap, ~end for null type
+ * typeHeap    char[type char count]
+ * nameHeap    char[name char count]
+ * </pre>
+ * Rows are stored in sorted order, so the order is precomputed once when writing.
+ * A snapshot is opened with {@link FileChannel#map}: opening reads only the header and
+ * the type table, and all lookups read the mapped pages directly.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public class InstitutionSnapshot {
+    private static final int MAGIC = 0x494E5354; // "INST"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    /** Mapped file contents */
+    private final ByteBuffer buffer;
+    /** Number of rows */
+    private final int size;
+    /** Start of every column in the buffer */
+    private final int ratingStart;
+    private final int yearStart;
+    private final int studentStart;
+    private final int typeStart;
+    private final int nameEndStart;
+    private final int nameHeapStart;
+    /** Type names of the type table */
+    private final String[] typeNames;
+
+    private InstitutionSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an institution snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version: " + buffer.getInt(4));
+        }
+        this.size = buffer.getInt(8);
+        int typeCount = buffer.getInt(12);
+        int nameCharCount = buffer.getInt(16);
+        int typeCharCount = buffer.getInt(20);
+        if (size < 0 || typeCount < 0 || nameCharCount < 0 || typeCharCount < 0) {
+            throw new IllegalArgumentException("Not an institution snapshot: negative count in the header");
+        }
+
+        // Offsets are computed in long, so a corrupt header cannot overflow into a plausible layout
+        long yearOffset = HEADER_SIZE + (long) Double.BYTES * size;
+        long studentOffset = yearOffset + (long) Integer.BYTES * size;
+        long typeOffset = studentOffset + (long) Integer.BYTES * size;
+        long nameEndOffset = typeOffset + (long) Integer.BYTES * size;
+        long typeEndOffset = nameEndOffset + (long) Integer.BYTES * size;
+        long typeHeapOffset = typeEndOffset + (long) Integer.BYTES * typeCount;
+        long nameHeapOffset = typeHeapOffset + (long) Character.BYTES * typeCharCount;
+        if (buffer.capacity() != nameHeapOffset + (long) Character.BYTES * nameCharCount) {
+            throw new IllegalArgumentException("Not an institution snapshot: size does not match the header");
+        }
+        this.ratingStart = HEADER_SIZE;
+        this.yearStart = (int) yearOffset;
+        this.studentStart = (int) studentOffset;
+        this.typeStart = (int) typeOffset;
+        this.nameEndStart = (int) nameEndOffset;
+        int typeEndStart = (int) typeEndOffset;
+        int typeHeapStart = (int) typeHeapOffset;
+        this.nameHeapStart = (int) nameHeapOffset;
+
+        this.typeNames = new String[typeCount];
+        int typeCharOffset = 0;
+        for (int i = 0; i < typeCount; i++) {
+            int end = buffer.getInt(typeEndStart + Integer.BYTES * i);
+            int checkedEnd = end < 0 ? ~end : end;
+            if (checkedEnd < typeCharOffset || checkedEnd > typeCharCount) {
+                throw new IllegalArgumentException("Not an institution snapshot: invalid type table");
+            }
+            typeNames[i] = end < 0 ? null : readChars(typeHeapStart, typeCharOffset, end);
+            typeCharOffset = checkedEnd;
+        }
+    }
+
+    /**
+     * Writes the rows of the storage to a snapshot file in sorted order
+     *
+     * @param columns institutions to write
+     * @param file snapshot file (created or replaced)
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the snapshot would exceed 2 GB
+     */
+    public static void write(InstitutionColumns columns, Path file) throws IOException {
+        int[] order = columns.sortedRows();
+        int rows = order.length;
+        int[] nameOffsets = columns.nameOffsetColumn();
+        int[] nameLengths = columns.nameLengthColumn();
+        char[] nameChars = columns.nameChars();
+
+        // Type table with local indexes; typeIndexes[code + 1] is the index of the type plus one
+        int[] typeIndexes = new int[columns.types().size() + 1];
+        List<String> types = new ArrayList<>();
+        long typeCharCount = 0;
+        long nameCharCount = 0;
+        for (int row : order) {
+            int code = columns.getTypeCode(row);
+            if (typeIndexes[code + 1] == 0) {
+                String type = columns.getType(row);
+                types.add(type);
+                typeIndexes[code + 1] = types.size();
+                typeCharCount += type == null ? 0 : type.length();
+            }
+            nameCharCount += Math.max(nameLengths[row], 0);
+        }
+
+        long fileSize = HEADER_SIZE + (long) rows * (Double.BYTES + 4 * Integer.BYTES)
+                        + (long) types.size() * Integer.BYTES
+                        + Character.BYTES * (typeCharCount + nameCharCount);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot is too large: " + fileSize + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(types.size())
+                  .putInt((int) nameCharCount).putInt((int) typeCharCount);
+            buffer.position(HEADER_SIZE);
+
+            for (int row : order) {
+                buffer.putDouble(columns.getRating(row));
+            }
+            for (int row : order) {
+                buffer.putInt(columns.getFoundationYear(row));
+            }
+            for (int row : order) {
+                buffer.putInt(columns.getStudentCount(row));
+            }
+            for (int row : order) {
+                buffer.putInt(typeIndexes[columns.getTypeCode(row) + 1] - 1);
+            }
+            int nameEnd = 0;
+            for (int row : order) {
+                if (nameLengths[row] < 0) {
+                    buffer.putInt(~nameEnd);
+                } else {
+                    nameEnd += nameLengths[row];
+                    buffer.putInt(nameEnd);
+                }
+            }
+            int typeEnd = 0;
+            for (String type : types) {
+                if (type == null) {
+                    buffer.putInt(~typeEnd);
+                } else {
+                    typeEnd += type.length();
+                    buffer.putInt(typeEnd);
+                }
+            }
+            for (String type : types) {
+                if (type != null) {
+                    putChars(buffer, type);
+                }
+            }
+            // Names are copied straight from the character table of the storage
+            for (int row : order) {
+                int offset = nameOffsets[row];
+                for (int i = 0; i < nameLengths[row]; i++) {
+                    buffer.putChar(nameChars[offset + i]);
+                }
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Writes the institutions to a snapshot file in sorted order
+     *
+     * @param institutions institutions to write
+     * @param file snapshot file (created or replaced)
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(EducationalInstitution[] institutions, Path file) throws IOException {
+        write(InstitutionColumns.of(institutions), file);
+    }
+
+    private static void putChars(ByteBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer.putChar(value.charAt(i));
+        }
+    }
+
+    /**
+     * Opens a snapshot file by mapping it into memory
+     *
+     * @param file snapshot file
+     * @return opened snapshot
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     */
+    public static InstitutionSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot is too large: " + channel.size() + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            return new InstitutionSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getFoundationYear(int row) {
+        return buffer.getInt(yearStart + Integer.BYTES * checkRow(row));
+    }
+
+    public int getStudentCount(int row) {
+        return buffer.getInt(studentStart + Integer.BYTES * checkRow(row));
+    }
+
+    public double getRating(int row) {
+        return buffer.getDouble(ratingStart + Double.BYTES * checkRow(row));
+    }
+
+    public String getType(int row) {
+        return typeNames[buffer.getInt(typeStart + Integer.BYTES * checkRow(row))];
+    }
+
+    public String getName(int row) {
+        int end = buffer.getInt(nameEndStart + Integer.BYTES * checkRow(row));
+        if (end < 0) {
+            return null;
+        }
+        return readChars(nameHeapStart, nameStart(row), end);
+    }
+
+    private int nameStart(int row) {
+        if (row == 0) {
+            return 0;
+        }
+        int previousEnd = buffer.getInt(nameEndStart + Integer.BYTES * (row - 1));
+        return previousEnd < 0 ? ~previousEnd : previousEnd;
+    }
+
+    private String readChars(int heapStart, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(heapStart + Character.BYTES * (from + i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Creates an object with the fields of the row
+     *
+     * @param row row index (position in sorted order)
+     * @return new EducationalInstitution
+     */
+    public EducationalInstitution get(int row) {
+        return new EducationalInstitution(getName(row), getType(row), getFoundationYear(row),
+                                          getStudentCount(row), getRating(row));
+    }
+
+    /**
+     * Loads all rows into columnar storage
+     *
+     * @return storage with rows in sorted order
+     */
+    public InstitutionColumns toColumns() {
+        InstitutionColumns columns = new InstitutionColumns(size);
+        for (int row = 0; row < size; row++) {
+            columns.add(getName(row), getType(row), getFoundationYear(row),
+                        getStudentCount(row), getRating(row));
+        }
+        return columns;
+    }
+
+    /**
+     * Searches for identical object using binary search over the mapped columns
+     *
+     * @param target object to search for
+     * @return row of the first identical object or -1 if not found
+     */
+    public int find(EducationalInstitution target) {
+        if (target == null) {
+            return -1;
+        }
+        int year = target.getFoundationYear();
+        double rating = target.getRating();
+        for (int row = lowerBound(year, rating); row < size; row++) {
+            if (InstitutionOrder.compare(getFoundationYear(row), getRating(row), year, rating) != 0) {
+                break;
+            }
+            if (getStudentCount(row) == target.getStudentCount()
+                && Objects.equals(getType(row), target.getType())
+                && Objects.equals(getName(row), target.getName())) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first row founded not earlier than the year
+     *
+     * @param year foundation year
+     * @return row index from 0 to size
+     */
+    public int firstRowFoundedFrom(int year) {
+        return lowerBound(year, Double.NaN);
+    }
+
+    /**
+     * Counts institutions founded in the range of years (inclusive) with binary search
+     *
+     * @param fromYear first year of the range
+     * @param toYear last year of the range
+     * @return number of rows
+     */
+    public int countFoundedBetween(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            return 0;
+        }
+        int from = firstRowFoundedFrom(fromYear);
+        int to = toYear == Integer.MAX_VALUE ? size : firstRowFoundedFrom(toYear + 1);
+        return to - from;
+    }
+
+    private int lowerBound(int year, double rating) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (InstitutionOrder.compare(getFoundationYear(mid), getRating(mid), year, rating) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,253 @@
+package Lab3;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorting of educational institutions by foundation year (ascending),
+ * and in case of same year - by rating (descending).
+ * Besides the comparator-based sort, provides a sort on packed primitive keys:
+ * year, rating rank and original position of every element are packed into one long,
+ * the long array is sorted and the objects are permuted according to it.
+ * For years from a small range a counting sort by year is used, and very large arrays
+ * are sorted in parallel. All sorts are stable and give the same order.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class InstitutionSorter {
+    /** Array size starting from which sorting is done in parallel */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    /** Maximal number of distinct years (buckets) for the counting sort */
+    static final int COUNTING_MAX_BUCKETS = 1 << 16;
+
+    /** Comparator by rating (descending) used inside year buckets */
+    private static final Comparator<EducationalInstitution> RATING_DESCENDING =
+        Comparator.comparingDouble(EducationalInstitution::getRating).reversed();
+
+    private InstitutionSorter() {
+    }
+
+    /**
+     * Sorts array choosing the algorithm by array size and spread of foundation years:
+     * counting sort if the number of distinct possible years does not exceed the array size,
+     * otherwise sort on packed keys (in parallel for large arrays),
+     * and comparator sort when keys do not fit into a long.
+     *
+     * @param institutions array to sort
+     */
+    public static void sort(EducationalInstitution[] institutions) {
+        int n = institutions.length;
+        if (n < 2) {
+            return;
+        }
+
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (EducationalInstitution institution : institutions) {
+            minYear = Math.min(minYear, institution.getFoundationYear());
+            maxYear = Math.max(maxYear, institution.getFoundationYear());
+        }
+        long buckets = (long) maxYear - minYear + 1;
+
+        if (buckets <= COUNTING_MAX_BUCKETS && buckets <= n) {
+            countingSortByYear(institutions, minYear, (int) buckets);
+        } else if (n >= PARALLEL_THRESHOLD) {
+            sortParallel(institutions);
+        } else if (!sortWithPackedKeys(institutions)) {
+            sortWithComparator(institutions);
+        }
+    }
+
+    /**
+     * Sorts array in parallel on the common ForkJoinPool.
+     * Packed keys are sorted with {@link Arrays#parallelSort(long[])};
+     * if they do not fit into a long, the stable comparator-based parallel sort is used.
+     *
+     * @param institutions array to sort
+     */
+    public static void sortParallel(EducationalInstitution[] institutions) {
+        if (!sortWithPackedKeys(institutions, true)) {
+            Arrays.parallelSort(institutions, InstitutionOrder.YEAR_RATING);
+        }
+    }
+
+    /**
+     * Sorts array with counting sort by foundation year.
+     * Elements are distributed into buckets by year preserving their relative order,
+     * then every bucket is sorted by rating (descending) with a stable sort.
+     *
+     * @param institutions array to sort
+     */
+    public static void countingSortByYear(EducationalInstitution[] institutions) {
+        int n = institutions.length;
+        if (n < 2) {
+            return;
+        }
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (EducationalInstitution institution : institutions) {
+            minYear = Math.min(minYear, institution.getFoundationYear());
+            maxYear = Math.max(maxYear, institution.getFoundationYear());
+        }
+        long buckets = (long) maxYear - minYear + 1;
+        if (buckets > COUNTING_MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range of foundation years is too wide for counting sort: "
+                                               + minYear + " - " + maxYear);
+        }
+        countingSortByYear(institutions, minYear, (int) buckets);
+    }
+
+    private static void countingSortByYear(EducationalInstitution[] institutions,
+                                           int minYear, int buckets) {
+        // starts[b] - first position of bucket b in the sorted array
+        int[] starts = new int[buckets + 1];
+        for (EducationalInstitution institution : institutions) {
+            starts[institution.getFoundationYear() - minYear + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            starts[b + 1] += starts[b];
+        }
+
+        EducationalInstitution[] source = institutions.clone();
+        int[] next = Arrays.copyOf(starts, buckets);
+        for (EducationalInstitution institution : source) {
+            institutions[next[institution.getFoundationYear() - minYear]++] = institution;
+        }
+
+        for (int b = 0; b < buckets; b++) {
+            if (starts[b + 1] - starts[b] > 1) {
+                Arrays.sort(institutions, starts[b], starts[b + 1], RATING_DESCENDING);
+            }
+        }
+    }
+
+    /**
+     * Sorts array using standard Arrays.sort() method with {@link InstitutionOrder#YEAR_RATING}
+     *
+     * @param institutions array to sort
+     */
+    public static void sortWithComparator(EducationalInstitution[] institutions) {
+        Arrays.sort(institutions, InstitutionOrder.YEAR_RATING);
+    }
+
+    /**
+     * Sorts array using packed primitive keys.
+     * Key layout (from high bits to low): year offset from the minimal year,
+     * descending rank of the rating among distinct ratings, original index.
+     * The index makes all keys unique, so the result is stable.
+     *
+     * @param institutions array to sort
+     * @return true if array was sorted, false if the keys do not fit into 63 bits
+     *         (array is left unchanged in this case)
+     */
+    public static boolean sortWithPackedKeys(EducationalInstitution[] institutions) {
+        return sortWithPackedKeys(institutions, false);
+    }
+
+    private static boolean sortWithPackedKeys(EducationalInstitution[] institutions, boolean parallel) {
+        int n = institutions.length;
+        if (n < 2) {
+            return true;
+        }
+
+        int[] years = new int[n];
+        double[] ratings = new double[n];
+        for (int i = 0; i < n; i++) {
+            years[i] = institutions[i].getFoundationYear();
+            ratings[i] = institutions[i].getRating();
+        }
+        int[] order = packedOrder(years, ratings, n, parallel);
+        if (order == null) {
+            return false;
+        }
+
+        EducationalInstitution[] source = institutions.clone();
+        for (int i = 0; i < n; i++) {
+            institutions[i] = source[order[i]];
+        }
+        return true;
+    }
+
+    /**
+     * Computes the stable year-rating order of rows given by primitive columns.
+     * Key layout (from high bits to low): year offset from the minimal year,
+     * descending rank of the rating among distinct ratings, row index.
+     *
+     * @param years foundation year column
+     * @param ratings rating column
+     * @param n number of rows to sort (prefix of the columns)
+     * @param parallel whether to sort keys in parallel
+     * @return row indexes in sorted order, or null if the keys do not fit into 63 bits
+     */
+    static int[] packedOrder(int[] years, double[] ratings, int n, boolean parallel) {
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            minYear = Math.min(minYear, years[i]);
+            maxYear = Math.max(maxYear, years[i]);
+            keys[i] = sortableBits(ratings[i]);
+        }
+
+        // Distinct ratings in ascending order, used to replace rating by its rank
+        long[] distinctRatings = keys.clone();
+        if (parallel) {
+            Arrays.parallelSort(distinctRatings);
+        } else {
+            Arrays.sort(distinctRatings);
+        }
+        int distinct = Math.min(n, 1);
+        for (int i = 1; i < n; i++) {
+            if (distinctRatings[i] != distinctRatings[distinct - 1]) {
+                distinctRatings[distinct++] = distinctRatings[i];
+            }
+        }
+
+        int indexBits = bitsFor(Math.max(n - 1, 0));
+        int rankBits = bitsFor(Math.max(distinct - 1, 0));
+        int yearBits = n == 0 ? 0 : bitsFor((long) maxYear - minYear);
+        if (indexBits + rankBits + yearBits > 63) {
+            return null;
+        }
+
+        for (int i = 0; i < n; i++) {
+            long rank = Arrays.binarySearch(distinctRatings, 0, distinct, keys[i]);
+            long descendingRank = distinct - 1 - rank;
+            long yearOffset = (long) years[i] - minYear;
+            keys[i] = (yearOffset << (rankBits + indexBits)) | (descendingRank << indexBits) | i;
+        }
+        if (parallel) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+
+        int[] order = new int[n];
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & indexMask);
+        }
+        return order;
+    }
+
+    /**
+     * Converts double to long bits whose signed order matches {@link Double#compare}
+     *
+     * @param value double value
+     * @return comparable long representation
+     */
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns number of bits needed to store a non-negative value
+     *
+     * @param value non-negative value
+     * @return number of significant bits (0 for zero)
+     */
+    static int bitsFor(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+}
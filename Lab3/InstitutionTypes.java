@@ -0,0 +1,115 @@
+package Lab3;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of institution types used by {@link ImmutableInstitution}.
+ * Every distinct type name ("University", "College", ...) is assigned a small integer code
+ * on first use, so that type comparisons can be done on codes instead of strings.
+ * <p>
+ * Registered names are never removed and stay reachable for the lifetime of the process,
+ * so only types of long-lived objects should be registered here. Loaded datasets
+ * ({@link InstitutionColumns}, {@link InstitutionCsvLoader}) keep their own dictionaries.
+ *
+ * @author Korotaiev Mykhailo
+ */
+public final class InstitutionTypes {
+    /** Code used for a missing (null) type */
+    public static final int NO_TYPE = -1;
+    /** Code returned by {@link #find(String)} for a type that is not registered */
+    public static final int UNKNOWN_TYPE = -2;
+
+    /** Type name to code mapping */
+    private static final Map<String, Integer> CODES = new ConcurrentHashMap<>();
+    /**
+     * Code to type name mapping (index is the code), valid for the first {@link #count} entries.
+     * Replaced by a copy of double length when full, so readers do not lock.
+     */
+    private static volatile String[] names = new String[8];
+    /** Number of registered types; written after the name, so every counted name is visible */
+    private static volatile int count;
+
+    static {
+        // Pre-register the types used in the laboratory work
+        codeOf("University");
+        codeOf("College");
+        codeOf("School");
+        codeOf("Technical School");
+    }
+
+    private InstitutionTypes() {
+    }
+
+    /**
+     * Returns the code of the type, registering the type if it is seen for the first time
+     *
+     * @param type type name
+     * @return code of the type or {@link #NO_TYPE} for null
+     */
+    public static int codeOf(String type) {
+        if (type == null) {
+            return NO_TYPE;
+        }
+        Integer code = CODES.get(type);
+        if (code != null) {
+            return code;
+        }
+        synchronized (CODES) {
+            code = CODES.get(type);
+            if (code == null) {
+                code = count;
+                if (code == names.length) {
+                    names = Arrays.copyOf(names, code * 2);
+                }
+                names[code] = type;
+                // Publish the name before the code, so every visible code has a name
+                count = code + 1;
+                CODES.put(type, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Returns the code of the type without registering it
+     *
+     * @param type type name
+     * @return code of the type, {@link #NO_TYPE} for null
+     *         or {@link #UNKNOWN_TYPE} if the type is not registered
+     */
+    public static int find(String type) {
+        if (type == null) {
+            return NO_TYPE;
+        }
+        Integer code = CODES.get(type);
+        return code == null ? UNKNOWN_TYPE : code;
+    }
+
+    /**
+     * Returns the type name registered under the code
+     *
+     * @param code type code
+     * @return type name or null for {@link #NO_TYPE}
+     * @throws IllegalArgumentException if the code is not registered
+     */
+    public static String nameOf(int code) {
+        if (code == NO_TYPE) {
+            return null;
+        }
+        if (code < 0 || code >= count) {
+            throw new IllegalArgumentException("Unknown type code: " + code);
+        }
+        return names[code];
+    }
+
+    /**
+     * Returns the number of registered types
+     *
+     * @return number of types
+     */
+    public static int size() {
+        return count;
+    }
+}
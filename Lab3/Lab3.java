@@ -1,8 +1,5 @@
 package Lab3;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 /**
  * Laboratory work #3.
  * Main executable class for demonstrating work with an array of educational institutions.
@@ -48,7 +45,8 @@ public class Lab3 {
         System.out.println("\n=== Object search ===");
         System.out.println("Search target: " + searchTarget);
         
-        int foundIndex = findInstitution(institutions, searchTarget);
+        // Array is sorted, so binary search can be used instead of sequential search
+        int foundIndex = findSortedInstitution(institutions, searchTarget);
         
         if (foundIndex != -1) {
             System.out.println("Object found at position: " + foundIndex);
@@ -141,32 +139,23 @@ public class Lab3 {
      * @param institutions array to sort
      */
     private static void sortInstitutions(EducationalInstitution[] institutions) {
-        // Create comparator for complex sorting
-        Comparator<EducationalInstitution> complexComparator = 
-            Comparator.comparingInt(EducationalInstitution::getFoundationYear)
-                      .thenComparing(Comparator.comparingDouble(
-                          EducationalInstitution::getRating).reversed());
-        
-        // Sort array using standard Arrays.sort() method
-        Arrays.sort(institutions, complexComparator);
+        // The sorter picks the algorithm by array size and spread of years:
+        // counting sort by year when the years span no more values than there are elements,
+        // parallel sort for large arrays, otherwise sort on packed primitive keys
+        // (comparator sort when the keys do not fit into a long)
+        InstitutionSorter.sort(institutions);
     }
     
     /**
-     * Searches for identical object in array
+     * Searches for identical object in array sorted by {@link #sortInstitutions}
      * 
-     * @param institutions array to search in
+     * @param institutions sorted array to search in
      * @param target object to search for
      * @return index of found object or -1 if not found
      */
-    private static int findInstitution(EducationalInstitution[] institutions, 
-                                       EducationalInstitution target) {
-        // Sequential search in array
-        for (int i = 0; i < institutions.length; i++) {
-            if (institutions[i].equals(target)) {
-                return i;
-            }
-        }
-        return -1;
+    private static int findSortedInstitution(EducationalInstitution[] institutions,
+                                             EducationalInstitution target) {
+        return InstitutionIndex.binarySearch(institutions, target);
     }
     
     /**
@@ -175,8 +164,6 @@ public class Lab3 {
      * @param institutions array to print
      */
     private static void printArray(EducationalInstitution[] institutions) {
-        for (int i = 0; i < institutions.length; i++) {
-            System.out.println("[" + i + "] " + institutions[i]);
-        }
+        InstitutionRenderer.printArray(System.out, institutions);
     }
 }
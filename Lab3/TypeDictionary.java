@@ -0,0 +1,172 @@
+package Lab3;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary of institution types of one dataset.
+ * Every distinct type name gets a small integer code in order of first use,
+ * so the dictionary lives exactly as long as the data that refers to its codes.
+ * <p>
+ * Names are kept in an open-addressing hash table of codes; the table and the
+ * name array grow geometrically. Like {@link InstitutionColumns}, the dictionary
+ * is not safe for registration from several threads.
+ *
+ * @author Korotaiev Mykhailo
+ */
+final class TypeDictionary {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int EMPTY = -1;
+
+    /** Codes placed by hash of the name, {@link #EMPTY} for a free slot; length is a power of two */
+    private int[] slots;
+    /** Type names indexed by code */
+    private String[] names;
+    /** Number of registered types */
+    private int size;
+
+    TypeDictionary() {
+        slots = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(slots, EMPTY);
+        names = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the code of the type, registering the type if it is seen for the first time
+     *
+     * @param type type name
+     * @return code of the type or {@link InstitutionTypes#NO_TYPE} for null
+     */
+    int codeOf(String type) {
+        if (type == null) {
+            return InstitutionTypes.NO_TYPE;
+        }
+        int slot = slotOf(type);
+        return slots[slot] != EMPTY ? slots[slot] : register(slot, type);
+    }
+
+    /**
+     * Returns the code of the type given as a character range, registering the type
+     * if it is seen for the first time. A String is created only for a new type.
+     *
+     * @param chars array containing the type name
+     * @param start index of the first character of the name
+     * @param end index after the last character of the name
+     * @return code of the type
+     */
+    int codeOf(char[] chars, int start, int end) {
+        // Same hash as String.hashCode, so ranges and strings share the table
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            if (regionEquals(names[slots[slot]], chars, start, end)) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return register(slot, new String(chars, start, end - start));
+    }
+
+    /**
+     * Returns the code of the type without registering it
+     *
+     * @param type type name
+     * @return code of the type, {@link InstitutionTypes#NO_TYPE} for null
+     *         or {@link InstitutionTypes#UNKNOWN_TYPE} if the type is not registered
+     */
+    int find(String type) {
+        if (type == null) {
+            return InstitutionTypes.NO_TYPE;
+        }
+        int code = slots[slotOf(type)];
+        return code == EMPTY ? InstitutionTypes.UNKNOWN_TYPE : code;
+    }
+
+    /**
+     * Returns the type name registered under the code
+     *
+     * @param code type code
+     * @return type name or null for {@link InstitutionTypes#NO_TYPE}
+     * @throws IllegalArgumentException if the code is not registered
+     */
+    String nameOf(int code) {
+        if (code == InstitutionTypes.NO_TYPE) {
+            return null;
+        }
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown type code: " + code);
+        }
+        return names[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the registered type names indexed by code
+     *
+     * @return new array of type names
+     */
+    String[] names() {
+        return Arrays.copyOf(names, size);
+    }
+
+    /**
+     * Finds the slot holding the code of the type, or the free slot where it belongs
+     */
+    private int slotOf(String type) {
+        int mask = slots.length - 1;
+        int slot = spread(type.hashCode()) & mask;
+        while (slots[slot] != EMPTY && !names[slots[slot]].equals(type)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int register(int slot, String type) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        int code = size++;
+        names[code] = type;
+        slots[slot] = code;
+        // Keep the table at most half full
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = spread(names[code].hashCode()) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code;
+        }
+    }
+
+    private static boolean regionEquals(String name, char[] chars, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
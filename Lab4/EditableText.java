@@ -0,0 +1,368 @@
+package Lab4;
+
+import java.util.SplittableRandom;
+
+/**
+ * Text that can be edited in place with inserts and deletes.
+ * The document is kept as a rope whose pieces are its sentences: an implicit treap
+ * (a randomized balanced tree ordered by position) where every node holds the characters
+ * of one sentence, and every subtree knows its number of characters, sentences and words.
+ * <p>
+ * Sentences follow the rules of {@link Text#Text(String)}, so {@link #toText()} gives
+ * the same sentences as parsing {@link #getContent()}. An edit re-tokenizes only the sentence
+ * containing it, the sentence before it (whose terminator may stop or start ending a sentence)
+ * and, when the edit removes a terminator, the following sentences it merges with.
+ * Sentence and word counts are read from the root; an edit costs O(log n) plus the length
+ * of the re-tokenized sentences.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public class EditableText {
+    private static final TextPipeline COPY = new TextPipeline();
+
+    /**
+     * Piece of the document: characters of one sentence
+     */
+    private static final class Node {
+        /** Characters of the piece, including whitespace before the sentence */
+        final String raw;
+        /** Sentence of the piece; null for trailing whitespace */
+        final Sentence sentence;
+        final int priority;
+        Node left;
+        Node right;
+        /** Totals of the subtree */
+        int size;
+        int chars;
+        int sentences;
+        int words;
+
+        Node(String raw, Sentence sentence, int priority) {
+            this.raw = raw;
+            this.sentence = sentence;
+            this.priority = priority;
+            update();
+        }
+
+        void update() {
+            size = 1;
+            chars = raw.length();
+            sentences = sentence == null ? 0 : 1;
+            words = sentence == null ? 0 : sentence.getWordCount();
+            if (left != null) {
+                size += left.size;
+                chars += left.chars;
+                sentences += left.sentences;
+                words += left.words;
+            }
+            if (right != null) {
+                size += right.size;
+                chars += right.chars;
+                sentences += right.sentences;
+                words += right.words;
+            }
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Constructs an empty EditableText.
+     */
+    public EditableText() {
+    }
+
+    /**
+     * Constructs an EditableText with the given content.
+     *
+     * @param text the initial content
+     * @throws IllegalArgumentException if the text is null
+     */
+    public EditableText(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        root = build(text, true);
+    }
+
+    /**
+     * Inserts a string at a position.
+     *
+     * @param position the index to insert at
+     * @param text the string to insert
+     * @throws IllegalArgumentException if the text is null
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public void insert(int position, String text) {
+        replace(position, position, text);
+    }
+
+    /**
+     * Deletes a range of characters.
+     *
+     * @param start the index of the first character to delete
+     * @param end the index after the last character to delete
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public void delete(int start, int end) {
+        replace(start, end, "");
+    }
+
+    /**
+     * Replaces a range of characters with a string.
+     *
+     * @param start the index of the first character to replace
+     * @param end the index after the last character to replace
+     * @param text the replacement
+     * @throws IllegalArgumentException if the text is null
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public void replace(int start, int end, String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end
+                    + ") is out of bounds for length " + length());
+        }
+        if (root == null) {
+            root = build(text, true);
+            return;
+        }
+
+        int first = Math.max(0, pieceAt(start) - 1);
+        int last = pieceAt(end > start ? end - 1 : start);
+        Node[] parts = split(root, first);
+        Node before = parts[0];
+        parts = split(parts[1], last - first + 1);
+        Node after = parts[1];
+
+        int regionStart = before == null ? 0 : before.chars;
+        StringBuilder region = new StringBuilder();
+        appendTo(region, parts[0]);
+        region.replace(start - regionStart, end - regionStart, text);
+
+        // The region must end at a terminator to keep the boundary with the following pieces
+        while (after != null && !endsWithTerminator(region)) {
+            parts = split(after, 1);
+            region.append(parts[0].raw);
+            after = parts[1];
+        }
+
+        root = merge(merge(before, build(region.toString(), after == null)), after);
+    }
+
+    private static boolean endsWithTerminator(CharSequence text) {
+        return text.length() > 0 && isTerminator(text.charAt(text.length() - 1));
+    }
+
+    private static boolean isTerminator(char ch) {
+        return ch == '.' || ch == '!' || ch == '?';
+    }
+
+    /**
+     * Splits text into pieces as {@link Text} splits it into sentences.
+     * A piece ends after a terminator that has non-whitespace after it, or is the last character.
+     * Pieces that are not at the end of the document always have content after them.
+     *
+     * @param text the characters to split
+     * @param atEnd whether the text is the end of the document
+     * @return treap of the pieces
+     */
+    private Node build(String text, boolean atEnd) {
+        int lastContent = text.length() - 1;
+        if (atEnd) {
+            while (lastContent >= 0 && Character.isWhitespace(text.charAt(lastContent))) {
+                lastContent--;
+            }
+        } else {
+            lastContent = Integer.MAX_VALUE;
+        }
+
+        Node result = null;
+        int pieceStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isTerminator(text.charAt(i)) && (lastContent > i || i == text.length() - 1)) {
+                String raw = text.substring(pieceStart, i + 1);
+                result = merge(result, new Node(raw, new Sentence(raw), random.nextInt()));
+                pieceStart = i + 1;
+            }
+        }
+
+        if (pieceStart < text.length()) {
+            // Remaining text is trimmed as String.trim() does
+            String raw = text.substring(pieceStart);
+            String trimmed = raw.trim();
+            Sentence sentence = trimmed.isEmpty() ? null : new Sentence(trimmed);
+            result = merge(result, new Node(raw, sentence, random.nextInt()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the piece containing a position; the last piece for the end position.
+     */
+    private int pieceAt(int position) {
+        if (position >= root.chars) {
+            return root.size - 1;
+        }
+        Node node = root;
+        int index = 0;
+        while (true) {
+            int leftChars = node.left == null ? 0 : node.left.chars;
+            int leftSize = node.left == null ? 0 : node.left.size;
+            if (position < leftChars) {
+                node = node.left;
+            } else if (position < leftChars + node.raw.length()) {
+                return index + leftSize;
+            } else {
+                position -= leftChars + node.raw.length();
+                index += leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Splits a treap into the first count pieces and the rest.
+     */
+    private static Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[2];
+        }
+        int leftSize = node.left == null ? 0 : node.left.size;
+        Node[] parts;
+        if (count <= leftSize) {
+            parts = split(node.left, count);
+            node.left = parts[1];
+            parts[1] = node;
+        } else {
+            parts = split(node.right, count - leftSize - 1);
+            node.right = parts[0];
+            parts[0] = node;
+        }
+        node.update();
+        return parts;
+    }
+
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            first.update();
+            return first;
+        }
+        second.left = merge(first, second.left);
+        second.update();
+        return second;
+    }
+
+    private static void appendTo(StringBuilder sb, Node node) {
+        if (node != null) {
+            appendTo(sb, node.left);
+            sb.append(node.raw);
+            appendTo(sb, node.right);
+        }
+    }
+
+    private static void addSentences(Text text, Node node) {
+        if (node != null) {
+            addSentences(text, node.left);
+            if (node.sentence != null) {
+                text.addSentence(node.sentence.transform(COPY));
+            }
+            addSentences(text, node.right);
+        }
+    }
+
+    /**
+     * Gets the number of characters.
+     *
+     * @return the length of the content
+     */
+    public int length() {
+        return root == null ? 0 : root.chars;
+    }
+
+    /**
+     * Gets the number of sentences.
+     *
+     * @return the number of sentences
+     */
+    public int getSentenceCount() {
+        return root == null ? 0 : root.sentences;
+    }
+
+    /**
+     * Counts the total number of words.
+     *
+     * @return the total word count
+     */
+    public int getWordCount() {
+        return root == null ? 0 : root.words;
+    }
+
+    /**
+     * Gets a sentence by its index.
+     * The result is a copy; changing it does not change this text.
+     *
+     * @param index the index of the sentence
+     * @return the sentence
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Sentence getSentence(int index) {
+        if (index < 0 || index >= getSentenceCount()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSentenceCount());
+        }
+        Node node = root;
+        while (true) {
+            int leftSentences = node.left == null ? 0 : node.left.sentences;
+            if (index < leftSentences) {
+                node = node.left;
+            } else {
+                index -= leftSentences;
+                if (node.sentence != null) {
+                    if (index == 0) {
+                        return node.sentence.transform(COPY);
+                    }
+                    index--;
+                }
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the current content.
+     *
+     * @return the content as a string
+     */
+    public String getContent() {
+        StringBuilder sb = new StringBuilder(length());
+        appendTo(sb, root);
+        return sb.toString();
+    }
+
+    /**
+     * Creates a Text with the current sentences.
+     *
+     * @return a Text equal to parsing the current content
+     */
+    public Text toText() {
+        Text text = new Text();
+        addSentences(text, root);
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return getContent();
+    }
+}
\ No newline at end of file
@@ -42,11 +42,9 @@ public class Lab4 {
         System.out.println("\n=== Words removed (length=" + targetLength + ", starting with consonant) ===");
         
         boolean foundAny = false;
-        for (Word word : original.getAllWords()) {
-            if (word.length() == targetLength && word.startsWithConsonant()) {
-                System.out.print("\"" + word + "\" ");
-                foundAny = true;
-            }
+        for (Word word : WordIndex.of(original).wordsOf(targetLength, true)) {
+            System.out.print("\"" + word + "\" ");
+            foundAny = true;
         }
         
         if (!foundAny) {
@@ -75,9 +73,9 @@ public class Lab4 {
         // Show which words will be removed
         printRemovedWords(originalText, targetLength);
 
-        // Process the text: remove words and clean whitespace
-        Text processedText = originalText.removeWordsOfLength(targetLength);
-        processedText = processedText.cleanWhitespace();
+        // Process the text: remove words and clean whitespace in one pass
+        Text processedText = originalText.transform(
+                new TextPipeline().removeWordsOfLength(targetLength).cleanWhitespace());
 
         System.out.println("\nProcessed text:");
         System.out.println(processedText);
@@ -9,6 +9,17 @@ package Lab4;
  */
 public class Letter {
     private static final String VOWELS = "aeiouAEIOU";
+    /** Shared instances of all letters, indexed by character code starting from 'A' */
+    private static final Letter[] CACHE = new Letter['z' - 'A' + 1];
+
+    static {
+        for (char ch = 'A'; ch <= 'z'; ch++) {
+            if (isLetter(ch)) {
+                CACHE[ch - 'A'] = new Letter(ch);
+            }
+        }
+    }
+
     private final char value;
 
     /**
@@ -24,6 +35,21 @@ public class Letter {
         this.value = value;
     }
 
+    /**
+     * Returns the shared Letter instance for the specified character.
+     * Letters are immutable, so one instance per character is enough.
+     * 
+     * @param value the character value of the letter
+     * @return the Letter instance
+     * @throws IllegalArgumentException if the character is not a letter
+     */
+    public static Letter of(char value) {
+        if (!isLetter(value)) {
+            throw new IllegalArgumentException("Character must be a letter: " + value);
+        }
+        return CACHE[value - 'A'];
+    }
+
     public char getValue() {
         return value;
     }
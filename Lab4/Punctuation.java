@@ -8,6 +8,15 @@ package Lab4;
  * @version 1.0
  */
 public class Punctuation {
+    /** Shared instances of ASCII characters */
+    private static final Punctuation[] ASCII_CACHE = new Punctuation[128];
+
+    static {
+        for (char ch = 0; ch < ASCII_CACHE.length; ch++) {
+            ASCII_CACHE[ch] = new Punctuation(ch);
+        }
+    }
+
     private final char value;
 
     /**
@@ -19,6 +28,17 @@ public class Punctuation {
         this.value = value;
     }
 
+    /**
+     * Returns a Punctuation for the specified character.
+     * Instances for ASCII characters are shared, since Punctuation is immutable.
+     * 
+     * @param value the character value
+     * @return the Punctuation instance
+     */
+    public static Punctuation of(char value) {
+        return value < ASCII_CACHE.length ? ASCII_CACHE[value] : new Punctuation(value);
+    }
+
     public char getValue() {
         return value;
     }
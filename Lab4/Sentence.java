@@ -1,29 +1,78 @@
 package Lab4;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Represents a sentence composed of words and punctuation marks.
  * This class implements the composition relationship: a Sentence HAS-A collection of Words and Punctuation.
- * 
+ *
+ * Elements are stored as primitive tokens over the source text: a word token keeps the
+ * offset and length of the word in the source, a punctuation token keeps its character.
+ * Word and Punctuation objects are created only when they are requested.
+ * Sentences produced by transformations share the token array of the original sentence:
+ * they are stored as runs of unchanged positions of that array, with only the new tokens
+ * kept separately, so a derivation stores O(number of changes) instead of a copy.
+ * The runs are flattened into an own array when a derived sentence is modified.
+ * A sentence of a lazily parsed {@link Text} only records its range and is tokenized
+ * on the first access to its elements; the tokens are built under the sentence's lock
+ * and published through a volatile flag, so such sentences can be read from several threads.
+ *
  * @author Korotaiev Mykhailo
  * @version 1.0
  */
 public class Sentence {
-    private final List<Object> elements; // Can contain Word or Punctuation objects
+    /** Token kind bit: set for punctuation, clear for words */
+    private static final long PUNCTUATION = 1L << 63;
+    /** Set for words added with {@link #addWord(Word)}, which are kept in {@link #addedWords} */
+    private static final long ADDED = 1L << 62;
+    private static final int OFFSET_SHIFT = 31;
+    private static final long FIELD_MASK = (1L << 31) - 1;
+    private static final long[] NO_TOKENS = new long[0];
+
+    /** Text the word tokens refer to */
+    private final CharSequence source;
+    /** Elements in order, encoded as described above; the shared base array when {@link #runs} is set */
+    private long[] tokens;
+    /**
+     * Runs making up the elements of a derived sentence, as pairs of start and end.
+     * A run with start s >= 0 covers tokens[s, end), a run with start ~s covers literals[s, end).
+     * Null when the elements are tokens[0, tokenCount).
+     */
+    private int[] runs;
+    private int runCount;
+    /** Tokens of a derived sentence that are not in the shared base array */
+    private long[] literals;
+    /** Range of the source to parse on first access */
+    private int rangeStart;
+    private int rangeEnd;
+    /** Whether the tokens are built; written last, after tokens and counts */
+    private volatile boolean parsed;
+    private int tokenCount;
+    private int wordCount;
+    /** Words that are not ranges of the source */
+    private List<Word> addedWords;
+    /** Whether tokens and added words are shared with another sentence and must be copied before changes */
+    private boolean shared;
 
     /**
      * Constructs an empty Sentence.
      */
     public Sentence() {
-        this.elements = new ArrayList<>();
+        this("", NO_TOKENS);
+    }
+
+    private Sentence(CharSequence source, long[] tokens) {
+        this.source = source;
+        this.tokens = tokens;
+        this.parsed = true;
     }
 
     /**
      * Constructs a Sentence from a string.
      * Parses the string into words and punctuation marks.
-     * 
+     *
      * @param sentence the string representation of the sentence
      * @throws IllegalArgumentException if the sentence is null
      */
@@ -32,111 +81,592 @@ public class Sentence {
             throw new IllegalArgumentException("Sentence cannot be null");
         }
 
-        this.elements = new ArrayList<>();
-        parseSentence(sentence);
+        this.source = sentence;
+        this.rangeEnd = sentence.length();
+        parseSentence();
     }
 
     /**
-     * Parses a string into words and punctuation marks.
-     * 
-     * @param sentence the string to parse
+     * Constructs a Sentence from a range of a text without copying it.
+     *
+     * @param text the text containing the sentence
+     * @param start the index of the first character of the sentence
+     * @param end the index after the last character of the sentence
+     * @param lazy whether to tokenize the range on first access instead of now
      */
-    private void parseSentence(String sentence) {
-        StringBuilder wordBuffer = new StringBuilder();
-
-        for (int i = 0; i < sentence.length(); i++) {
-            char ch = sentence.charAt(i);
+    Sentence(CharSequence text, int start, int end, boolean lazy) {
+        this.source = text;
+        this.rangeStart = start;
+        this.rangeEnd = end;
+        if (!lazy) {
+            parseSentence();
+        }
+    }
 
-            if (isLetter(ch)) {
-                wordBuffer.append(ch);
-            } else {
-                if (wordBuffer.length() > 0) {
-                    elements.add(new Word(wordBuffer.toString()));
-                    wordBuffer.setLength(0);
+    /**
+     * Tokenizes the recorded range if it was not done yet.
+     * Double-checked on the volatile flag, so the range is parsed once
+     * and other threads see either no tokens or all of them.
+     */
+    private void ensureParsed() {
+        if (!parsed) {
+            synchronized (this) {
+                if (!parsed) {
+                    parseSentence();
                 }
-                elements.add(new Punctuation(ch));
             }
         }
+    }
+
+    /**
+     * Parses the recorded range of the source into word and punctuation tokens.
+     * Tokens are collected in local variables and stored in the fields at the end.
+     */
+    private void parseSentence() {
+        long[] result = new long[Math.max(4, (rangeEnd - rangeStart) / 2)];
+        int count = 0;
+        int words = 0;
+        int wordStart = -1;
+
+        for (int i = rangeStart; i <= rangeEnd; i++) {
+            char ch = i < rangeEnd ? source.charAt(i) : ' ';
+            boolean letter = i < rangeEnd && isLetter(ch);
 
-        if (wordBuffer.length() > 0) {
-            elements.add(new Word(wordBuffer.toString()));
+            if (letter) {
+                if (wordStart < 0) {
+                    wordStart = i;
+                }
+                continue;
+            }
+            if (count + 2 > result.length) {
+                result = Arrays.copyOf(result, result.length * 2);
+            }
+            if (wordStart >= 0) {
+                result[count++] = wordToken(wordStart, i - wordStart);
+                words++;
+                wordStart = -1;
+            }
+            if (i < rangeEnd) {
+                result[count++] = punctuationToken(ch);
+            }
         }
+
+        tokens = result;
+        tokenCount = count;
+        wordCount = words;
+        parsed = true;
     }
 
     /**
      * Checks if a character is a letter.
-     * 
+     *
      * @param ch the character to check
      * @return true if the character is a letter, false otherwise
      */
-    private boolean isLetter(char ch) {
+    private static boolean isLetter(char ch) {
         return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
     }
 
+    private static long wordToken(int offset, int length) {
+        return ((long) offset << OFFSET_SHIFT) | length;
+    }
+
+    private static long punctuationToken(char ch) {
+        return PUNCTUATION | ch;
+    }
+
+    private static boolean isPunctuation(long token) {
+        return (token & PUNCTUATION) != 0;
+    }
+
+    private static char punctuationChar(long token) {
+        return (char) token;
+    }
+
+    private static boolean isWhitespace(long token) {
+        return isPunctuation(token) && Character.isWhitespace(punctuationChar(token));
+    }
+
+    private void addToken(long token) {
+        if (shared) {
+            unshare();
+        }
+        if (tokenCount == tokens.length) {
+            tokens = Arrays.copyOf(tokens, Math.max(4, tokenCount * 2));
+        }
+        tokens[tokenCount++] = token;
+        if (!isPunctuation(token)) {
+            wordCount++;
+        }
+    }
+
+    private int wordLength(long token) {
+        return wordLength(token, addedWords);
+    }
+
+    private static int wordLength(long token, List<Word> words) {
+        if ((token & ADDED) != 0) {
+            return words.get((int) (token & FIELD_MASK)).length();
+        }
+        return (int) (token & FIELD_MASK);
+    }
+
+    private char wordFirstChar(long token) {
+        return wordFirstChar(token, addedWords);
+    }
+
+    private char wordFirstChar(long token, List<Word> words) {
+        if ((token & ADDED) != 0) {
+            return words.get((int) (token & FIELD_MASK)).charAt(0);
+        }
+        return source.charAt((int) ((token >>> OFFSET_SHIFT) & FIELD_MASK));
+    }
+
+    private Word word(long token) {
+        if ((token & ADDED) != 0) {
+            return addedWords.get((int) (token & FIELD_MASK));
+        }
+        return Word.slice(source, (int) ((token >>> OFFSET_SHIFT) & FIELD_MASK), (int) (token & FIELD_MASK));
+    }
+
+    private void appendWord(StringBuilder sb, long token) {
+        if ((token & ADDED) != 0) {
+            sb.append(addedWords.get((int) (token & FIELD_MASK)));
+        } else {
+            int offset = (int) ((token >>> OFFSET_SHIFT) & FIELD_MASK);
+            sb.append(source, offset, offset + (int) (token & FIELD_MASK));
+        }
+    }
+
+    private Object element(long token) {
+        return isPunctuation(token) ? Punctuation.of(punctuationChar(token)) : word(token);
+    }
+
+    /*
+     * Elements are iterated as segments: one segment tokens[0, tokenCount) for a flat sentence,
+     * or one segment per run for a derived one.
+     */
+
+    private int segmentCount() {
+        return runs == null ? 1 : runCount;
+    }
+
+    private long[] segmentTokens(int segment) {
+        return runs == null || runs[2 * segment] >= 0 ? tokens : literals;
+    }
+
+    private int segmentStart(int segment) {
+        if (runs == null) {
+            return 0;
+        }
+        int start = runs[2 * segment];
+        return start >= 0 ? start : ~start;
+    }
+
+    private int segmentEnd(int segment) {
+        return runs == null ? tokenCount : runs[2 * segment + 1];
+    }
+
+    private void unshare() {
+        long[] own = new long[Math.max(4, tokenCount * 2)];
+        int count = 0;
+        for (int s = 0; s < segmentCount(); s++) {
+            int start = segmentStart(s);
+            int length = segmentEnd(s) - start;
+            System.arraycopy(segmentTokens(s), start, own, count, length);
+            count += length;
+        }
+        tokens = own;
+        runs = null;
+        literals = null;
+        if (addedWords != null) {
+            addedWords = new ArrayList<>(addedWords);
+        }
+        shared = false;
+    }
+
+    /**
+     * Builder of a sentence derived from this one.
+     * Every emitted token comes with the position it was read from in the base array
+     * (-1 for tokens read from literals). A token equal to the base token at that position
+     * extends or starts a run over the base array; other tokens are stored as literals.
+     * So the result keeps referring to the unchanged parts of the base array, including
+     * those after the first change.
+     */
+    private final class Derivation {
+        private int[] resultRuns = new int[8];
+        private int resultRunCount;
+        private long[] resultLiterals;
+        private int literalCount;
+        private int count;
+        private int words;
+        /** Added words the result refers to; starts as the list of this sentence */
+        private List<Word> wordList = addedWords;
+        private boolean ownWordList;
+
+        void emit(long token, int position) {
+            int last = 2 * (resultRunCount - 1);
+            if (position >= 0 && tokens[position] == token) {
+                if (resultRunCount > 0 && resultRuns[last] >= 0 && resultRuns[last + 1] == position) {
+                    resultRuns[last + 1]++;
+                } else {
+                    addRun(position, position + 1);
+                }
+            } else {
+                if (resultLiterals == null) {
+                    resultLiterals = new long[4];
+                } else if (literalCount == resultLiterals.length) {
+                    resultLiterals = Arrays.copyOf(resultLiterals, literalCount * 2);
+                }
+                resultLiterals[literalCount] = token;
+                if (resultRunCount > 0 && resultRuns[last] < 0 && resultRuns[last + 1] == literalCount) {
+                    resultRuns[last + 1]++;
+                } else {
+                    addRun(~literalCount, literalCount + 1);
+                }
+                literalCount++;
+            }
+            count(token, 1);
+        }
+
+        private void addRun(int start, int end) {
+            if (2 * resultRunCount == resultRuns.length) {
+                resultRuns = Arrays.copyOf(resultRuns, resultRuns.length * 2);
+            }
+            resultRuns[2 * resultRunCount] = start;
+            resultRuns[2 * resultRunCount + 1] = end;
+            resultRunCount++;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        long last() {
+            int end = resultRuns[2 * resultRunCount - 1];
+            return resultRuns[2 * resultRunCount - 2] >= 0 ? tokens[end - 1] : resultLiterals[end - 1];
+        }
+
+        void removeLast() {
+            count(last(), -1);
+            int last = 2 * (resultRunCount - 1);
+            if (resultRuns[last] < 0) {
+                literalCount--;
+            }
+            resultRuns[last + 1]--;
+            int start = resultRuns[last] >= 0 ? resultRuns[last] : ~resultRuns[last];
+            if (resultRuns[last + 1] == start) {
+                resultRunCount--;
+            }
+        }
+
+        /**
+         * Registers a word that is not a range of the source.
+         *
+         * @param word the word
+         * @return the token referring to the word
+         */
+        long addWord(Word word) {
+            if (!ownWordList) {
+                wordList = wordList == null ? new ArrayList<>() : new ArrayList<>(wordList);
+                ownWordList = true;
+            }
+            wordList.add(word);
+            return ADDED | (wordList.size() - 1);
+        }
+
+        private void count(long token, int delta) {
+            count += delta;
+            if (!isPunctuation(token)) {
+                words += delta;
+            }
+        }
+
+        /**
+         * Creates the sentence. A single run from the start of the base array or of the literals
+         * is stored as a flat sentence; runs that would take more space than a quarter
+         * of a copy are flattened.
+         */
+        Sentence build() {
+            Sentence sentence;
+            if (resultRunCount == 0) {
+                sentence = new Sentence(source, NO_TOKENS);
+            } else if (resultRunCount == 1 && (resultRuns[0] == 0 || resultRuns[0] == ~0)) {
+                sentence = new Sentence(source, resultRuns[0] == 0 ? tokens : resultLiterals);
+            } else {
+                sentence = new Sentence(source, tokens);
+                sentence.runs = Arrays.copyOf(resultRuns, 2 * resultRunCount);
+                sentence.runCount = resultRunCount;
+                sentence.literals = resultLiterals;
+            }
+            sentence.tokenCount = count;
+            sentence.wordCount = words;
+            sentence.addedWords = wordList;
+            sentence.shared = true;
+            if (sentence.runs != null && resultRunCount * 4 > count) {
+                sentence.unshare();
+            }
+            return sentence;
+        }
+    }
+
+    /**
+     * Single traversal of the tokens through the operations of a {@link TextPipeline}.
+     * A token leaving operation i is passed to operation i + 1 immediately.
+     * The whitespace collapse holds back its space until a non-whitespace token follows,
+     * since {@link #cleanWhitespace()} drops a trailing space; this keeps the result
+     * identical to applying the operations one by one.
+     */
+    private final class Pass {
+        private final int[] operations;
+        private final int[] arguments;
+        /** Per whitespace operation: a space is held back */
+        private final boolean[] pendingSpace;
+        /** Per whitespace operation: position of the whitespace the held back space replaces */
+        private final int[] pendingPosition;
+        /** Per whitespace operation: a non-whitespace token has been passed on */
+        private final boolean[] started;
+        private final Derivation output = new Derivation();
+
+        Pass(TextPipeline pipeline) {
+            this.operations = pipeline.operations;
+            this.arguments = pipeline.arguments;
+            this.pendingSpace = new boolean[operations.length];
+            this.pendingPosition = new int[operations.length];
+            this.started = new boolean[operations.length];
+        }
+
+        void push(long token, int position, int stage) {
+            for (; stage < operations.length; stage++) {
+                switch (operations[stage]) {
+                    case TextPipeline.REMOVE_WORDS:
+                        if (!isPunctuation(token)
+                                && wordLength(token, output.wordList) == arguments[stage]
+                                && Letter.of(wordFirstChar(token, output.wordList)).isConsonant()) {
+                            return;
+                        }
+                        break;
+                    case TextPipeline.CLEAN_WHITESPACE:
+                        if (isWhitespace(token)) {
+                            if (started[stage] && !pendingSpace[stage]) {
+                                pendingSpace[stage] = true;
+                                pendingPosition[stage] = position;
+                            }
+                            return;
+                        }
+                        started[stage] = true;
+                        if (pendingSpace[stage]) {
+                            pendingSpace[stage] = false;
+                            push(punctuationToken(' '), pendingPosition[stage], stage + 1);
+                        }
+                        break;
+                    default:
+                        if (!isPunctuation(token)) {
+                            token = mapCase(token, operations[stage] == TextPipeline.UPPER_CASE);
+                        }
+                        break;
+                }
+            }
+            output.emit(token, position);
+        }
+
+        /**
+         * Converts the case of a word token; unchanged words keep their token.
+         */
+        private long mapCase(long token, boolean upper) {
+            Word word = (token & ADDED) != 0
+                    ? output.wordList.get((int) (token & FIELD_MASK))
+                    : word(token);
+            char[] chars = null;
+            for (int i = 0; i < word.length(); i++) {
+                char ch = word.charAt(i);
+                char mapped = upper ? Character.toUpperCase(ch) : Character.toLowerCase(ch);
+                if (mapped != ch) {
+                    if (chars == null) {
+                        chars = word.toString().toCharArray();
+                    }
+                    chars[i] = mapped;
+                }
+            }
+            return chars == null ? token : output.addWord(Word.slice(new String(chars), 0, chars.length));
+        }
+    }
+
+    /**
+     * Applies all operations of a pipeline in one traversal of this sentence.
+     *
+     * @param pipeline the operations to apply
+     * @return a new Sentence with the processed elements
+     */
+    Sentence transform(TextPipeline pipeline) {
+        ensureParsed();
+        Pass pass = new Pass(pipeline);
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            boolean base = segment == tokens;
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                pass.push(segment[i], base ? i : -1, 0);
+            }
+        }
+        return pass.output.build();
+    }
+
     /**
      * Adds a word to this sentence.
-     * 
+     *
      * @param word the Word to add
      */
     public void addWord(Word word) {
         if (word != null) {
-            elements.add(word);
+            ensureParsed();
+            if (shared) {
+                unshare();
+            }
+            if (addedWords == null) {
+                addedWords = new ArrayList<>();
+            }
+            addedWords.add(word);
+            addToken(ADDED | (addedWords.size() - 1));
         }
     }
 
     /**
      * Adds a punctuation mark to this sentence.
-     * 
+     *
      * @param punctuation the Punctuation to add
      */
     public void addPunctuation(Punctuation punctuation) {
         if (punctuation != null) {
-            elements.add(punctuation);
+            ensureParsed();
+            addToken(punctuationToken(punctuation.getValue()));
         }
     }
 
     /**
      * Gets all elements (words and punctuation) in this sentence.
-     * 
+     *
      * @return a list of sentence elements
      */
     public List<Object> getElements() {
-        return new ArrayList<>(elements);
+        ensureParsed();
+        List<Object> elements = new ArrayList<>(tokenCount);
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                elements.add(element(segment[i]));
+            }
+        }
+        return elements;
     }
 
     /**
      * Gets all words in this sentence.
-     * 
+     *
      * @return a list of Word objects
      */
     public List<Word> getWords() {
-        List<Word> words = new ArrayList<>();
-        for (Object element : elements) {
-            if (element instanceof Word) {
-                words.add((Word) element);
+        ensureParsed();
+        List<Word> words = new ArrayList<>(wordCount);
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                if (!isPunctuation(segment[i])) {
+                    words.add(word(segment[i]));
+                }
             }
         }
         return words;
     }
 
     /**
-     * Counts the number of words in this sentence.
-     * 
-     * @return the number of words
+     * Creates a sentence from tokens over a source, as produced by {@link #encode(StringBuilder)}.
+     *
+     * @param source the characters the word tokens refer to
+     * @param tokens the tokens, used without copying
+     * @return the sentence
      */
-    public int getWordCount() {
+    static Sentence ofTokens(CharSequence source, long[] tokens) {
+        Sentence sentence = new Sentence(source, tokens);
+        sentence.tokenCount = tokens.length;
+        for (long token : tokens) {
+            if (!isPunctuation(token)) {
+                sentence.wordCount++;
+            }
+        }
+        return sentence;
+    }
+
+    /**
+     * Appends the characters of this sentence and returns its tokens with word offsets
+     * referring to the appended characters. Added words become ordinary word tokens.
+     *
+     * @param chars the buffer receiving the characters
+     * @return the tokens for {@link #ofTokens(CharSequence, long[])} over the buffer contents
+     */
+    long[] encode(StringBuilder chars) {
+        ensureParsed();
+        long[] encoded = new long[tokenCount];
         int count = 0;
-        for (Object element : elements) {
-            if (element instanceof Word) {
-                count++;
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                long token = segment[i];
+                if (isPunctuation(token)) {
+                    encoded[count++] = token;
+                    chars.append(punctuationChar(token));
+                } else {
+                    encoded[count++] = wordToken(chars.length(), wordLength(token));
+                    appendWord(chars, token);
+                }
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Receiver of the character ranges of words.
+     */
+    interface WordRangeVisitor {
+        void visit(CharSequence source, int offset, int length);
+    }
+
+    /**
+     * Passes the range of every word, in order, without creating Word objects for parsed words.
+     *
+     * @param visitor receiver of the ranges
+     */
+    void forEachWord(WordRangeVisitor visitor) {
+        ensureParsed();
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                long token = segment[i];
+                if (isPunctuation(token)) {
+                    continue;
+                }
+                if ((token & ADDED) != 0) {
+                    Word word = addedWords.get((int) (token & FIELD_MASK));
+                    visitor.visit(word, 0, word.length());
+                } else {
+                    visitor.visit(source, (int) ((token >>> OFFSET_SHIFT) & FIELD_MASK), (int) (token & FIELD_MASK));
+                }
             }
         }
-        return count;
+    }
+
+    /**
+     * Counts the number of words in this sentence.
+     *
+     * @return the number of words
+     */
+    public int getWordCount() {
+        ensureParsed();
+        return wordCount;
     }
 
     /**
      * Removes words of specified length that start with a consonant.
-     * 
+     *
      * @param length the target word length
      * @return a new Sentence with the filtered words
      */
@@ -145,63 +675,74 @@ public class Sentence {
             throw new IllegalArgumentException("Length must be positive");
         }
 
-        Sentence newSentence = new Sentence();
-        for (Object element : elements) {
-            if (element instanceof Word) {
-                Word word = (Word) element;
-                if (!(word.length() == length && word.startsWithConsonant())) {
-                    newSentence.elements.add(word);
+        ensureParsed();
+        Derivation newSentence = new Derivation();
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            boolean base = segment == tokens;
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                long token = segment[i];
+                if (isPunctuation(token)
+                        || !(wordLength(token) == length && Letter.of(wordFirstChar(token)).isConsonant())) {
+                    newSentence.emit(token, base ? i : -1);
                 }
-            } else {
-                newSentence.elements.add(element);
             }
         }
-        return newSentence;
+        return newSentence.build();
     }
 
     /**
      * Cleans excessive whitespace, replacing sequences of spaces and tabs with a single space.
-     * 
+     *
      * @return a new Sentence with cleaned whitespace
      */
     public Sentence cleanWhitespace() {
-        Sentence newSentence = new Sentence();
+        ensureParsed();
+        Derivation newSentence = new Derivation();
         boolean previousWasSpace = false;
 
-        for (Object element : elements) {
-            if (element instanceof Punctuation) {
-                Punctuation punct = (Punctuation) element;
-                if (punct.isWhitespace()) {
-                    if (!previousWasSpace && !newSentence.elements.isEmpty()) {
-                        newSentence.elements.add(new Punctuation(' '));
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            boolean base = segment == tokens;
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                long token = segment[i];
+                if (isWhitespace(token)) {
+                    if (!previousWasSpace && !newSentence.isEmpty()) {
+                        newSentence.emit(punctuationToken(' '), base ? i : -1);
                         previousWasSpace = true;
                     }
                 } else {
-                    newSentence.elements.add(punct);
+                    newSentence.emit(token, base ? i : -1);
                     previousWasSpace = false;
                 }
-            } else {
-                newSentence.elements.add(element);
-                previousWasSpace = false;
             }
         }
 
         // Remove trailing space if present
-        if (!newSentence.elements.isEmpty()) {
-            Object lastElement = newSentence.elements.get(newSentence.elements.size() - 1);
-            if (lastElement instanceof Punctuation && ((Punctuation) lastElement).isWhitespace()) {
-                newSentence.elements.remove(newSentence.elements.size() - 1);
-            }
+        if (!newSentence.isEmpty() && isWhitespace(newSentence.last())) {
+            newSentence.removeLast();
         }
 
-        return newSentence;
+        return newSentence.build();
     }
 
     @Override
     public String toString() {
+        if (!parsed) {
+            // Elements cover every character of the range, so it is printed as is
+            return source.subSequence(rangeStart, rangeEnd).toString();
+        }
         StringBuilder sb = new StringBuilder();
-        for (Object element : elements) {
-            sb.append(element.toString());
+        for (int s = 0; s < segmentCount(); s++) {
+            long[] segment = segmentTokens(s);
+            for (int i = segmentStart(s), end = segmentEnd(s); i < end; i++) {
+                long token = segment[i];
+                if (isPunctuation(token)) {
+                    sb.append(punctuationChar(token));
+                } else {
+                    appendWord(sb, token);
+                }
+            }
         }
         return sb.toString();
     }
@@ -2,15 +2,24 @@ package Lab4;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * Represents a text composed of multiple sentences.
  * This class implements the composition relationship: a Text HAS-A collection of Sentences.
  * 
+ * Sentences are processed independently, so texts with at least {@link #PARALLEL_THRESHOLD}
+ * sentences are processed in parallel: the sentence list is split by its Spliterator and
+ * the parts run on the common ForkJoinPool. Results keep the order of the sentences.
+ * 
  * @author Korotaiev Mykhailo
  * @version 1.0
  */
 public class Text {
+    /** Number of sentences from which operations on all sentences run in parallel */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
     private final List<Sentence> sentences;
 
     /**
@@ -28,50 +37,70 @@ public class Text {
      * @throws IllegalArgumentException if the text is null
      */
     public Text(String text) {
+        this(text, false);
+    }
+
+    /**
+     * Constructs a Text from a string, optionally parsing sentences lazily.
+     * In lazy mode only the sentence boundaries are found here, and each sentence
+     * is tokenized when its elements are first used, so construction time and memory
+     * depend on the sentences actually accessed. Lazy sentences are tokenized once
+     * even when they are first read from several threads.
+     * 
+     * @param text the string representation of the text
+     * @param lazy whether to tokenize sentences on first access
+     * @throws IllegalArgumentException if the text is null
+     */
+    public Text(String text, boolean lazy) {
         if (text == null) {
             throw new IllegalArgumentException("Text cannot be null");
         }
 
         this.sentences = new ArrayList<>();
-        parseText(text);
+        parseText(text, lazy);
     }
 
     /**
      * Parses a string into sentences.
      * Sentences are separated by '.', '!', or '?'.
+     * A terminator followed only by whitespace does not end a sentence unless it is the last character.
+     * The position of the last non-whitespace character is found once, so parsing is linear.
+     * Sentences reference ranges of the text instead of copies.
      * 
      * @param text the string to parse
+     * @param lazy whether to record only the ranges and tokenize sentences on first access
      */
-    private void parseText(String text) {
-        StringBuilder sentenceBuffer = new StringBuilder();
+    private void parseText(String text, boolean lazy) {
+        int lastContent = text.length() - 1;
+        while (lastContent >= 0 && Character.isWhitespace(text.charAt(lastContent))) {
+            lastContent--;
+        }
 
+        int sentenceStart = 0;
         for (int i = 0; i < text.length(); i++) {
             char ch = text.charAt(i);
-            sentenceBuffer.append(ch);
 
             if (ch == '.' || ch == '!' || ch == '?') {
                 // Check if there's more content after this punctuation
-                boolean hasMoreContent = false;
-                for (int j = i + 1; j < text.length(); j++) {
-                    if (!Character.isWhitespace(text.charAt(j))) {
-                        hasMoreContent = true;
-                        break;
-                    }
-                }
+                boolean hasMoreContent = lastContent > i;
 
                 if (hasMoreContent || i == text.length() - 1) {
-                    sentences.add(new Sentence(sentenceBuffer.toString()));
-                    sentenceBuffer.setLength(0);
+                    sentences.add(new Sentence(text, sentenceStart, i + 1, lazy));
+                    sentenceStart = i + 1;
                 }
             }
         }
 
-        // Add any remaining text as a sentence
-        if (sentenceBuffer.length() > 0) {
-            String remaining = sentenceBuffer.toString().trim();
-            if (!remaining.isEmpty()) {
-                sentences.add(new Sentence(remaining));
-            }
+        // Add any remaining text as a sentence, trimmed as String.trim() does
+        int end = text.length();
+        while (sentenceStart < end && text.charAt(sentenceStart) <= ' ') {
+            sentenceStart++;
+        }
+        while (end > sentenceStart && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (sentenceStart < end) {
+            sentences.add(new Sentence(text, sentenceStart, end, lazy));
         }
     }
 
@@ -110,6 +139,11 @@ public class Text {
      * @return the total word count
      */
     public int getWordCount() {
+        if (sentences.size() >= PARALLEL_THRESHOLD) {
+            // Each part sums its own sentences, the partial sums are added at the end
+            return sentences.parallelStream().mapToInt(Sentence::getWordCount).sum();
+        }
+
         int count = 0;
         for (Sentence sentence : sentences) {
             count += sentence.getWordCount();
@@ -117,6 +151,24 @@ public class Text {
         return count;
     }
 
+    /**
+     * Applies an operation to every sentence, in parallel for large texts.
+     * 
+     * @param operation the operation producing a new sentence from a sentence
+     * @return a new Text with the results in the order of the sentences
+     */
+    private Text map(UnaryOperator<Sentence> operation) {
+        Text newText = new Text();
+        if (sentences.size() >= PARALLEL_THRESHOLD) {
+            newText.sentences.addAll(sentences.parallelStream().map(operation).collect(Collectors.toList()));
+        } else {
+            for (Sentence sentence : sentences) {
+                newText.addSentence(operation.apply(sentence));
+            }
+        }
+        return newText;
+    }
+
     /**
      * Removes words of specified length that start with a consonant from all sentences.
      * 
@@ -129,12 +181,7 @@ public class Text {
             throw new IllegalArgumentException("Length must be positive");
         }
 
-        Text newText = new Text();
-        for (Sentence sentence : sentences) {
-            Sentence filteredSentence = sentence.removeWordsOfLength(length);
-            newText.addSentence(filteredSentence);
-        }
-        return newText;
+        return map(sentence -> sentence.removeWordsOfLength(length));
     }
 
     /**
@@ -144,12 +191,26 @@ public class Text {
      * @return a new Text with cleaned whitespace
      */
     public Text cleanWhitespace() {
-        Text newText = new Text();
-        for (Sentence sentence : sentences) {
-            Sentence cleanedSentence = sentence.cleanWhitespace();
-            newText.addSentence(cleanedSentence);
+        return map(Sentence::cleanWhitespace);
+    }
+
+    /**
+     * Applies the operations of a pipeline to all sentences.
+     * Each sentence is traversed once for the whole pipeline, so
+     * {@code transform(new TextPipeline().removeWordsOfLength(n).cleanWhitespace())}
+     * gives the same result as {@code removeWordsOfLength(n).cleanWhitespace()}
+     * without building the intermediate Text.
+     * 
+     * @param pipeline the operations to apply
+     * @return a new Text with the processed sentences
+     * @throws IllegalArgumentException if the pipeline is null
+     */
+    public Text transform(TextPipeline pipeline) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Pipeline cannot be null");
         }
-        return newText;
+
+        return map(sentence -> sentence.transform(pipeline));
     }
 
     /**
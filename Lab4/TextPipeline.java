@@ -0,0 +1,99 @@
+package Lab4;
+
+import java.util.Arrays;
+
+/**
+ * Sequence of per-token operations applied to a text in a single pass.
+ * Each sentence is traversed once and every token goes through all operations in order,
+ * so no intermediate Text or Sentence is built between the steps. The result is the same
+ * as calling the corresponding {@link Text} methods one after another.
+ * Pipelines are immutable; every method returns a new pipeline with one more operation.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public final class TextPipeline {
+    static final int REMOVE_WORDS = 0;
+    static final int CLEAN_WHITESPACE = 1;
+    static final int LOWER_CASE = 2;
+    static final int UPPER_CASE = 3;
+
+    /** Operation codes in order of application */
+    final int[] operations;
+    /** Argument of each operation (word length for {@link #REMOVE_WORDS}) */
+    final int[] arguments;
+
+    /**
+     * Constructs an empty pipeline that leaves text unchanged.
+     */
+    public TextPipeline() {
+        this(new int[0], new int[0]);
+    }
+
+    private TextPipeline(int[] operations, int[] arguments) {
+        this.operations = operations;
+        this.arguments = arguments;
+    }
+
+    private TextPipeline then(int operation, int argument) {
+        int[] newOperations = Arrays.copyOf(operations, operations.length + 1);
+        int[] newArguments = Arrays.copyOf(arguments, arguments.length + 1);
+        newOperations[operations.length] = operation;
+        newArguments[arguments.length] = argument;
+        return new TextPipeline(newOperations, newArguments);
+    }
+
+    /**
+     * Adds removal of words of specified length that start with a consonant.
+     *
+     * @param length the target word length
+     * @return a new pipeline
+     * @throws IllegalArgumentException if the length is not positive
+     */
+    public TextPipeline removeWordsOfLength(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be positive");
+        }
+        return then(REMOVE_WORDS, length);
+    }
+
+    /**
+     * Adds replacement of whitespace sequences with a single space.
+     *
+     * @return a new pipeline
+     */
+    public TextPipeline cleanWhitespace() {
+        return then(CLEAN_WHITESPACE, 0);
+    }
+
+    /**
+     * Adds conversion of all words to lower case.
+     *
+     * @return a new pipeline
+     */
+    public TextPipeline toLowerCase() {
+        return then(LOWER_CASE, 0);
+    }
+
+    /**
+     * Adds conversion of all words to upper case.
+     *
+     * @return a new pipeline
+     */
+    public TextPipeline toUpperCase() {
+        return then(UPPER_CASE, 0);
+    }
+
+    /**
+     * Applies this pipeline to a text.
+     *
+     * @param text the text to process
+     * @return a new Text with the processed sentences
+     */
+    public Text apply(Text text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        return text.transform(this);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package Lab4;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads sentences from a character stream one at a time.
+ * Sentences are split with the same rules as {@link Text#Text(String)}: a terminator
+ * ('.', '!' or '?') ends a sentence when a non-whitespace character follows it anywhere later,
+ * or when it is the last character; the rest of the input is trimmed and forms the last sentence.
+ * Only the current sentence and a fixed-size read buffer are kept in memory, so documents
+ * of any size can be filtered and counted sentence by sentence.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public final class TextReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private TextReader() {
+    }
+
+    /**
+     * Returns a stream of the sentences of a UTF-8 file.
+     * The file is closed when the stream is closed.
+     *
+     * @param file the file to read
+     * @return ordered stream of sentences
+     * @throws IOException if the file cannot be opened
+     */
+    public static Stream<Sentence> sentences(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return sentences(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a stream of the sentences read from a reader.
+     * The reader is read as the stream is consumed and closed when the stream is closed.
+     * Read errors are thrown as {@link UncheckedIOException}.
+     *
+     * @param reader the source of characters
+     * @return ordered stream of sentences
+     * @throws IllegalArgumentException if the reader is null
+     */
+    public static Stream<Sentence> sentences(Reader reader) {
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader cannot be null");
+        }
+        return StreamSupport.stream(new SentenceSpliterator(reader), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Spliterator producing sentences as soon as their end is known.
+     * A terminator may end the sentence only if non-whitespace follows, so the characters after it
+     * are collected until the first non-whitespace character or the end of the input decides.
+     */
+    private static final class SentenceSpliterator extends Spliterators.AbstractSpliterator<Sentence> {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        /** Characters of the current sentence */
+        private final StringBuilder sentence = new StringBuilder();
+        /** Length of the sentence up to the last terminator that may end it, -1 if there is none */
+        private int pendingEnd = -1;
+        private boolean finished;
+
+        SentenceSpliterator(Reader reader) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Sentence> action) {
+            if (finished) {
+                return false;
+            }
+            while (true) {
+                int ch = read();
+                if (ch < 0) {
+                    finished = true;
+                    return finish(action);
+                }
+                if (pendingEnd >= 0 && !Character.isWhitespace(ch)) {
+                    // Content after the terminator: the sentence ends there
+                    Sentence result = new Sentence(sentence.substring(0, pendingEnd));
+                    sentence.delete(0, pendingEnd);
+                    pendingEnd = -1;
+                    append((char) ch);
+                    action.accept(result);
+                    return true;
+                }
+                append((char) ch);
+            }
+        }
+
+        private void append(char ch) {
+            sentence.append(ch);
+            if (ch == '.' || ch == '!' || ch == '?') {
+                pendingEnd = sentence.length();
+            }
+        }
+
+        /**
+         * Emits the rest of the input at its end.
+         */
+        private boolean finish(Consumer<? super Sentence> action) {
+            if (pendingEnd >= 0 && pendingEnd == sentence.length()) {
+                // The terminator is the last character
+                action.accept(new Sentence(sentence.toString()));
+                return true;
+            }
+            // Trimmed as String.trim() does
+            int start = 0;
+            int end = sentence.length();
+            while (start < end && sentence.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && sentence.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return false;
+            }
+            action.accept(new Sentence(sentence.substring(start, end)));
+            return true;
+        }
+
+        private int read() {
+            if (position == limit) {
+                try {
+                    limit = reader.read(buffer, 0, buffer.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package Lab4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary form of a parsed text that is loaded without tokenizing it again.
+ * <p>
+ * Layout (little-endian):
+ * <pre>
+ * header      magic, version, sentence count, token count, char count, word count (int),
+ *             padding to 32 bytes
+ * tokens      long[token count]     sentence tokens, word offsets refer to the char heap
+ * tokenEnd    int[sentence count]   end of the tokens of each sentence
+ * charEnd     int[sentence count]   end of the characters of each sentence
+ * chars       char[char count]      characters of all sentences, one after another
+ * </pre>
+ * A snapshot is read from a {@link ByteBuffer} or a mapped file; sentences are created
+ * from the stored tokens when requested, and their words refer to the characters
+ * in the buffer instead of copies. {@code toText().toString()} is equal to
+ * {@code toString()} of the written text.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public final class TextSnapshot {
+    private static final int MAGIC = 0x54455854; // "TEXT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    /** Snapshot contents */
+    private final ByteBuffer buffer;
+    private final int sentenceCount;
+    private final int wordCount;
+    /** Start of every section in the buffer */
+    private final int tokenEndStart;
+    private final int charEndStart;
+    private final LongBuffer tokens;
+    /** Characters of the sentences, read directly from the buffer */
+    private final CharBuffer chars;
+
+    private TextSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a text snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version: " + buffer.getInt(4));
+        }
+        this.sentenceCount = buffer.getInt(8);
+        int tokenCount = buffer.getInt(12);
+        int charCount = buffer.getInt(16);
+        this.wordCount = buffer.getInt(20);
+
+        this.tokenEndStart = HEADER_SIZE + Long.BYTES * tokenCount;
+        this.charEndStart = tokenEndStart + Integer.BYTES * sentenceCount;
+        int charStart = charEndStart + Integer.BYTES * sentenceCount;
+        if (buffer.capacity() != charStart + Character.BYTES * charCount) {
+            throw new IllegalArgumentException("Snapshot size does not match its header");
+        }
+        this.tokens = buffer.slice(HEADER_SIZE, Long.BYTES * tokenCount)
+                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        this.chars = buffer.slice(charStart, Character.BYTES * charCount)
+                .order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+    }
+
+    /**
+     * Sentences of a text encoded over one character heap
+     */
+    private static final class Encoded {
+        final StringBuilder chars = new StringBuilder();
+        long[] tokens = new long[64];
+        int tokenCount;
+        final int[] tokenEnds;
+        final int[] charEnds;
+        int wordCount;
+
+        Encoded(Text text) {
+            List<Sentence> sentences = text.getSentences();
+            tokenEnds = new int[sentences.size()];
+            charEnds = new int[sentences.size()];
+            for (int i = 0; i < sentences.size(); i++) {
+                long[] sentenceTokens = sentences.get(i).encode(chars);
+                if (tokenCount + sentenceTokens.length > tokens.length) {
+                    tokens = Arrays.copyOf(tokens, Math.max(tokens.length * 2, tokenCount + sentenceTokens.length));
+                }
+                System.arraycopy(sentenceTokens, 0, tokens, tokenCount, sentenceTokens.length);
+                tokenCount += sentenceTokens.length;
+                tokenEnds[i] = tokenCount;
+                charEnds[i] = chars.length();
+                wordCount += sentences.get(i).getWordCount();
+            }
+        }
+
+        long size() {
+            return HEADER_SIZE + (long) Long.BYTES * tokenCount
+                   + (long) Integer.BYTES * 2 * tokenEnds.length
+                   + (long) Character.BYTES * chars.length();
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(tokenEnds.length).putInt(tokenCount)
+                  .putInt(chars.length()).putInt(wordCount);
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < tokenCount; i++) {
+                buffer.putLong(tokens[i]);
+            }
+            for (int end : tokenEnds) {
+                buffer.putInt(end);
+            }
+            for (int end : charEnds) {
+                buffer.putInt(end);
+            }
+            for (int i = 0; i < chars.length(); i++) {
+                buffer.putChar(chars.charAt(i));
+            }
+        }
+    }
+
+    private static Encoded encode(Text text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        Encoded encoded = new Encoded(text);
+        if (encoded.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot is too large: " + encoded.size() + " bytes");
+        }
+        return encoded;
+    }
+
+    /**
+     * Encodes a text into a new buffer
+     *
+     * @param text the text to encode
+     * @return buffer with the snapshot, positioned at its start
+     * @throws IllegalArgumentException if the text is null or the snapshot would exceed 2 GB
+     */
+    public static ByteBuffer toByteBuffer(Text text) {
+        Encoded encoded = encode(text);
+        ByteBuffer buffer = ByteBuffer.allocate((int) encoded.size());
+        encoded.writeTo(buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Writes a text to a snapshot file
+     *
+     * @param text the text to write
+     * @param file snapshot file (created or replaced)
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the text is null or the snapshot would exceed 2 GB
+     */
+    public static void write(Text text, Path file) throws IOException {
+        Encoded encoded = encode(text);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, encoded.size());
+            encoded.writeTo(buffer);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Reads a snapshot from a buffer; the buffer must not change while the snapshot is used
+     *
+     * @param buffer buffer holding exactly one snapshot, from index 0
+     * @return the snapshot
+     * @throws IllegalArgumentException if the buffer is not a valid snapshot
+     */
+    public static TextSnapshot of(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null");
+        }
+        return new TextSnapshot(buffer.duplicate());
+    }
+
+    /**
+     * Opens a snapshot file by mapping it into memory
+     *
+     * @param file snapshot file
+     * @return opened snapshot
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     */
+    public static TextSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot is too large: " + channel.size() + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            return new TextSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getSentenceCount() {
+        return sentenceCount;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Creates a sentence from its stored tokens
+     *
+     * @param index the index of the sentence
+     * @return the sentence; its words refer to the snapshot characters
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Sentence getSentence(int index) {
+        if (index < 0 || index >= sentenceCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sentenceCount);
+        }
+        int start = index == 0 ? 0 : buffer.getInt(tokenEndStart + Integer.BYTES * (index - 1));
+        int end = buffer.getInt(tokenEndStart + Integer.BYTES * index);
+        long[] sentenceTokens = new long[end - start];
+        tokens.get(start, sentenceTokens);
+        return Sentence.ofTokens(chars, sentenceTokens);
+    }
+
+    /**
+     * Creates a Text with all sentences of the snapshot
+     *
+     * @return the text
+     */
+    public Text toText() {
+        Text text = new Text();
+        for (int i = 0; i < sentenceCount; i++) {
+            text.addSentence(getSentence(i));
+        }
+        return text;
+    }
+
+    /**
+     * Returns the text as {@link Text#toString()} of the written text, read directly from the characters
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(chars.length() + sentenceCount);
+        int start = 0;
+        for (int i = 0; i < sentenceCount; i++) {
+            int end = buffer.getInt(charEndStart + Integer.BYTES * i);
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(chars, start, end);
+            start = end;
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -1,20 +1,22 @@
 package Lab4;
 
-import java.util.Arrays;
-
 /**
- * Represents a word composed of an array of Letter objects.
- * Implements composition: a Word HAS-A array of Letters.
- * 
+ * Represents a word composed of letters.
+ * A Word is a slice (offset and length) of a shared source character sequence,
+ * so words parsed from a text reference the text instead of copying its characters.
+ * Letters are provided as shared {@link Letter} instances on request.
+ *
  * @author Korotaiev Mykhailo
  * @version 1.0
  */
-public class Word {
-    private final Letter[] letters;
+public class Word implements CharSequence {
+    private final CharSequence source;
+    private final int offset;
+    private final int length;
 
     /**
      * Constructs a Word from a string.
-     * 
+     *
      * @param word the string representation
      * @throws IllegalArgumentException if word is null, empty, or contains non-letters
      */
@@ -22,16 +24,15 @@ public class Word {
         if (word == null || word.isEmpty()) {
             throw new IllegalArgumentException("Word cannot be null or empty");
         }
-        
-        this.letters = new Letter[word.length()];
-        for (int i = 0; i < word.length(); i++) {
-            this.letters[i] = new Letter(word.charAt(i));
-        }
+        this.source = word;
+        this.offset = 0;
+        this.length = word.length();
+        checkLetters();
     }
 
     /**
      * Constructs a Word from an array of Letters.
-     * 
+     *
      * @param letters the array of Letter objects
      * @throws IllegalArgumentException if array is null or empty
      */
@@ -39,60 +40,131 @@ public class Word {
         if (letters == null || letters.length == 0) {
             throw new IllegalArgumentException("Letters array cannot be null or empty");
         }
-        this.letters = Arrays.copyOf(letters, letters.length);
+        char[] chars = new char[letters.length];
+        for (int i = 0; i < letters.length; i++) {
+            chars[i] = letters[i].getValue();
+        }
+        this.source = new String(chars);
+        this.offset = 0;
+        this.length = chars.length;
+    }
+
+    /**
+     * Constructs a Word referencing a range of a character sequence.
+     * The sequence is not copied, so it must not change while the Word is used.
+     *
+     * @param source the sequence containing the word
+     * @param offset the index of the first letter
+     * @param length the number of letters
+     * @throws IllegalArgumentException if the range is empty or contains non-letters
+     * @throws IndexOutOfBoundsException if the range is outside of the sequence
+     */
+    public Word(CharSequence source, int offset, int length) {
+        this(source, offset, length, true);
+    }
+
+    private Word(CharSequence source, int offset, int length, boolean check) {
+        if (source == null || length <= 0) {
+            throw new IllegalArgumentException("Word cannot be null or empty");
+        }
+        if (offset < 0 || offset + length > source.length()) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+                    + ") is out of bounds for length " + source.length());
+        }
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        if (check) {
+            checkLetters();
+        }
+    }
+
+    /**
+     * Creates a Word for a range that is already known to contain only letters.
+     *
+     * @param source the sequence containing the word
+     * @param offset the index of the first letter
+     * @param length the number of letters
+     * @return the Word
+     */
+    static Word slice(CharSequence source, int offset, int length) {
+        return new Word(source, offset, length, false);
     }
 
+    private void checkLetters() {
+        for (int i = 0; i < length; i++) {
+            Letter.of(source.charAt(offset + i));
+        }
+    }
+
+    @Override
     public int length() {
-        return letters.length;
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+        }
+        return source.charAt(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of bounds for length " + length);
+        }
+        return source.subSequence(offset + start, offset + end);
     }
 
     /**
      * Gets the letter at the specified index.
-     * 
+     *
      * @param index the index
      * @return the Letter at position
      * @throws IndexOutOfBoundsException if index is out of range
      */
     public Letter getLetter(int index) {
-        if (index < 0 || index >= letters.length) {
-            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + letters.length);
-        }
-        return letters[index];
+        return Letter.of(charAt(index));
     }
 
     public Letter getFirstLetter() {
-        return letters[0];
+        return Letter.of(source.charAt(offset));
     }
 
     public Letter[] getLetters() {
-        return Arrays.copyOf(letters, letters.length);
+        Letter[] letters = new Letter[length];
+        for (int i = 0; i < length; i++) {
+            letters[i] = Letter.of(source.charAt(offset + i));
+        }
+        return letters;
     }
 
     /**
      * Checks if this word starts with a consonant.
-     * 
+     *
      * @return true if first letter is consonant, false otherwise
      */
     public boolean startsWithConsonant() {
-        return letters[0].isConsonant();
+        return getFirstLetter().isConsonant();
     }
 
     /**
      * Checks if this word starts with a vowel.
-     * 
+     *
      * @return true if first letter is vowel, false otherwise
      */
     public boolean startsWithVowel() {
-        return letters[0].isVowel();
+        return getFirstLetter().isVowel();
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (Letter letter : letters) {
-            sb.append(letter.getValue());
+        if (source instanceof String) {
+            return ((String) source).substring(offset, offset + length);
         }
-        return sb.toString();
+        return source.subSequence(offset, offset + length).toString();
     }
 
     @Override
@@ -100,11 +172,21 @@ public class Word {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Word word = (Word) obj;
-        return Arrays.equals(letters, word.letters);
+        if (length != word.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(offset + i) != word.source.charAt(word.offset + i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(letters);
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + source.charAt(offset + i);
+        }
+        return result;
     }
 }
\ No newline at end of file
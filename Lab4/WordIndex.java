@@ -0,0 +1,249 @@
+package Lab4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index of the words of a text.
+ * Word occurrences are numbered in text order, as in {@link Text#getAllWords()}.
+ * The index maps every distinct word to its positions and groups positions by word length
+ * and by the class of the first letter (consonant or vowel), so lookups cost O(result)
+ * instead of a traversal of the whole text. Positions of each group are stored in one
+ * array, grouped by counting sort, and are in text order within a group.
+ * The index reflects the text at the time it was built.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public final class WordIndex {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    /** All word occurrences in text order */
+    private final Word[] words;
+    /** Position of the first word of each sentence, followed by the number of words */
+    private final int[] sentenceStarts;
+
+    /** Id of each distinct word */
+    private final Map<Word, Integer> wordIds;
+    /** Positions grouped by word id; group i is [wordStarts[i], wordStarts[i + 1]) */
+    private final int[] wordStarts;
+    private final int[] wordPositions;
+
+    /** Positions grouped by facet {@code length * 2 + (consonant ? 1 : 0)} */
+    private final int[] facetStarts;
+    private final int[] facetPositions;
+
+    private WordIndex(Text text) {
+        List<Sentence> sentences = text.getSentences();
+        sentenceStarts = new int[sentences.size() + 1];
+        List<Word> allWords = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            sentenceStarts[i] = allWords.size();
+            allWords.addAll(sentences.get(i).getWords());
+        }
+        sentenceStarts[sentences.size()] = allWords.size();
+        words = allWords.toArray(new Word[0]);
+
+        wordIds = new HashMap<>();
+        int[] ids = new int[words.length];
+        int maxLength = 0;
+        for (int i = 0; i < words.length; i++) {
+            Integer id = wordIds.putIfAbsent(words[i], wordIds.size());
+            ids[i] = id == null ? wordIds.size() - 1 : id;
+            maxLength = Math.max(maxLength, words[i].length());
+        }
+        int[] facets = new int[words.length];
+        for (int i = 0; i < words.length; i++) {
+            facets[i] = facet(words[i].length(), words[i].startsWithConsonant());
+        }
+
+        wordStarts = new int[wordIds.size() + 1];
+        wordPositions = group(ids, wordStarts);
+        facetStarts = new int[facet(maxLength, true) + 2];
+        facetPositions = group(facets, facetStarts);
+    }
+
+    /**
+     * Builds the index of a text
+     *
+     * @param text the text to index
+     * @return the word index
+     * @throws IllegalArgumentException if the text is null
+     */
+    public static WordIndex of(Text text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        return new WordIndex(text);
+    }
+
+    private static int facet(int length, boolean consonant) {
+        return length * 2 + (consonant ? 1 : 0);
+    }
+
+    /**
+     * Groups positions by key with a counting sort, keeping positions ascending in each group.
+     *
+     * @param keys key of each position
+     * @param starts receives the start of each group, followed by the total count
+     * @return positions ordered by key
+     */
+    private static int[] group(int[] keys, int[] starts) {
+        for (int key : keys) {
+            starts[key + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] next = Arrays.copyOf(starts, starts.length - 1);
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            positions[next[keys[i]]++] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the number of indexed word occurrences
+     *
+     * @return number of words
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Returns the number of distinct words
+     *
+     * @return number of distinct words
+     */
+    public int distinctWordCount() {
+        return wordIds.size();
+    }
+
+    /**
+     * Returns the word at a position
+     *
+     * @param position position of the occurrence
+     * @return the word
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public Word wordAt(int position) {
+        return words[position];
+    }
+
+    /**
+     * Returns the index of the sentence containing a position
+     *
+     * @param position position of the occurrence
+     * @return index of the sentence in the text
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public int sentenceOf(int position) {
+        if (position < 0 || position >= words.length) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + words.length);
+        }
+        // Last sentence starting at or before the position; empty sentences are skipped
+        int low = 0;
+        int high = sentenceStarts.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (sentenceStarts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the word within its sentence
+     *
+     * @param position position of the occurrence
+     * @return index among the words of the sentence
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public int wordIndexInSentence(int position) {
+        return position - sentenceStarts[sentenceOf(position)];
+    }
+
+    /**
+     * Finds all occurrences of a word, comparing case-sensitively
+     *
+     * @param word the word to find
+     * @return positions in text order
+     */
+    public int[] positionsOf(CharSequence word) {
+        if (word == null || word.length() == 0) {
+            return NO_POSITIONS;
+        }
+        Integer id = wordIds.get(word instanceof Word ? (Word) word : asWord(word));
+        if (id == null) {
+            return NO_POSITIONS;
+        }
+        return Arrays.copyOfRange(wordPositions, wordStarts[id], wordStarts[id + 1]);
+    }
+
+    /**
+     * Finds occurrences of words with the given length and class of the first letter
+     *
+     * @param length word length
+     * @param consonant true for words starting with a consonant, false for a vowel
+     * @return positions in text order
+     */
+    public int[] positionsOf(int length, boolean consonant) {
+        int facet = facet(length, consonant);
+        if (length <= 0 || facet + 1 >= facetStarts.length) {
+            return NO_POSITIONS;
+        }
+        return Arrays.copyOfRange(facetPositions, facetStarts[facet], facetStarts[facet + 1]);
+    }
+
+    /**
+     * Returns words with the given length and class of the first letter
+     *
+     * @param length word length
+     * @param consonant true for words starting with a consonant, false for a vowel
+     * @return words in text order
+     */
+    public List<Word> wordsOf(int length, boolean consonant) {
+        int[] positions = positionsOf(length, consonant);
+        List<Word> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(words[position]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of words with the given length and class of the first letter
+     *
+     * @param length word length
+     * @param consonant true for words starting with a consonant, false for a vowel
+     * @return number of words
+     */
+    public int countOf(int length, boolean consonant) {
+        int facet = facet(length, consonant);
+        if (length <= 0 || facet + 1 >= facetStarts.length) {
+            return 0;
+        }
+        return facetStarts[facet + 1] - facetStarts[facet];
+    }
+
+    /**
+     * Converts a sequence to a Word key, or returns null if it contains non-letters.
+     */
+    private static Word asWord(CharSequence sequence) {
+        for (int i = 0; i < sequence.length(); i++) {
+            char ch = sequence.charAt(i);
+            if (!((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z'))) {
+                return null;
+            }
+        }
+        return Word.slice(sequence, 0, sequence.length());
+    }
+}
\ No newline at end of file
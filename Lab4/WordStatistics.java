@@ -0,0 +1,361 @@
+package Lab4;
+
+import java.nio.CharBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Word frequency and bigram statistics of a text.
+ * Words are hashed directly from their character ranges in the source text into
+ * open-addressing tables with {@code int} counters; a word is copied into the table
+ * only the first time it is seen, so no String is created per occurrence.
+ * Bigrams are pairs of consecutive words of the same sentence and are written as
+ * the two words separated by a space. Words are compared case-sensitively, as {@link Word#equals(Object)}.
+ * <p>
+ * Statistics of different parts of a text can be collected independently and combined
+ * with {@link #merge(WordStatistics)}; {@link #of(Text)} does so for large texts
+ * on the common ForkJoinPool.
+ *
+ * @author Korotaiev Mykhailo
+ * @version 1.0
+ */
+public final class WordStatistics {
+
+    /**
+     * Open-addressing hash table from character strings to counters.
+     * Keys are stored one after another in a char heap; slots hold entry numbers plus one.
+     */
+    private static final class CountTable {
+        private int[] slots = new int[16];
+        private char[] heap = new char[256];
+        private int heapSize;
+        private int[] offsets = new int[8];
+        private int[] lengths = new int[8];
+        private int[] hashes = new int[8];
+        private int[] counts = new int[8];
+        private int size;
+        private long total;
+
+        /**
+         * Adds to the counter of the key made of range a, followed by a space and range b
+         * when bLength is not negative.
+         */
+        void add(CharSequence a, int aOffset, int aLength, CharSequence b, int bOffset, int bLength,
+                 int hash, int count) {
+            total += count;
+            int mask = slots.length - 1;
+            int slot = spread(hash) & mask;
+            while (slots[slot] != 0) {
+                int entry = slots[slot] - 1;
+                if (hashes[entry] == hash && matches(entry, a, aOffset, aLength, b, bOffset, bLength)) {
+                    counts[entry] += count;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int keyLength = bLength < 0 ? aLength : aLength + 1 + bLength;
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            if (heapSize + keyLength > heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(heap.length * 2, heapSize + keyLength));
+            }
+            offsets[size] = heapSize;
+            lengths[size] = keyLength;
+            hashes[size] = hash;
+            counts[size] = count;
+            for (int i = 0; i < aLength; i++) {
+                heap[heapSize++] = a.charAt(aOffset + i);
+            }
+            if (bLength >= 0) {
+                heap[heapSize++] = ' ';
+                for (int i = 0; i < bLength; i++) {
+                    heap[heapSize++] = b.charAt(bOffset + i);
+                }
+            }
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+        }
+
+        /**
+         * Returns the counter of a key, 0 if it is absent.
+         */
+        int get(CharSequence key) {
+            int hash = hash(1, key, 0, key.length());
+            int mask = slots.length - 1;
+            int slot = spread(hash) & mask;
+            while (slots[slot] != 0) {
+                int entry = slots[slot] - 1;
+                if (hashes[entry] == hash && matches(entry, key, 0, key.length(), null, 0, -1)) {
+                    return counts[entry];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        void merge(CountTable other) {
+            CharBuffer keys = CharBuffer.wrap(other.heap);
+            for (int entry = 0; entry < other.size; entry++) {
+                add(keys, other.offsets[entry], other.lengths[entry], null, 0, -1,
+                    other.hashes[entry], other.counts[entry]);
+            }
+        }
+
+        private boolean matches(int entry, CharSequence a, int aOffset, int aLength,
+                                CharSequence b, int bOffset, int bLength) {
+            int keyLength = bLength < 0 ? aLength : aLength + 1 + bLength;
+            if (lengths[entry] != keyLength) {
+                return false;
+            }
+            int position = offsets[entry];
+            for (int i = 0; i < aLength; i++) {
+                if (heap[position++] != a.charAt(aOffset + i)) {
+                    return false;
+                }
+            }
+            if (bLength >= 0) {
+                if (heap[position++] != ' ') {
+                    return false;
+                }
+                for (int i = 0; i < bLength; i++) {
+                    if (heap[position++] != b.charAt(bOffset + i)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] newSlots = new int[slots.length * 2];
+            int mask = newSlots.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = spread(hashes[entry]) & mask;
+                while (newSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newSlots[slot] = entry + 1;
+            }
+            slots = newSlots;
+        }
+
+        String key(int entry) {
+            return new String(heap, offsets[entry], lengths[entry]);
+        }
+
+        /**
+         * Orders entries by count descending, then by key.
+         */
+        int compare(int first, int second) {
+            int result = Integer.compare(counts[second], counts[first]);
+            if (result != 0) {
+                return result;
+            }
+            return Arrays.compare(heap, offsets[first], offsets[first] + lengths[first],
+                                  heap, offsets[second], offsets[second] + lengths[second]);
+        }
+
+        List<Map.Entry<String, Integer>> top(int n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("Count cannot be negative");
+            }
+            Comparator<Integer> order = this::compare;
+            // Keeps the n best entries; the worst of them is at the head
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, Math.min(n, size)), order.reversed());
+            for (int entry = 0; entry < size && n > 0; entry++) {
+                if (best.size() < n) {
+                    best.add(entry);
+                } else if (compare(entry, best.peek()) < 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+            List<Map.Entry<String, Integer>> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                int entry = best.poll();
+                result.add(new AbstractMap.SimpleImmutableEntry<>(key(entry), counts[entry]));
+            }
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    private final CountTable unigrams = new CountTable();
+    private final CountTable bigrams = new CountTable();
+
+    /** Previous word of the sentence being added, for bigrams */
+    private CharSequence previousSource;
+    private int previousOffset;
+    private int previousLength = -1;
+    private int previousHash;
+
+    /**
+     * Constructs empty statistics.
+     */
+    public WordStatistics() {
+    }
+
+    /**
+     * Collects statistics of a text.
+     * Texts with at least {@link Text#PARALLEL_THRESHOLD} sentences are processed in parallel,
+     * each worker counting its own sentences, and the partial statistics are merged.
+     *
+     * @param text the text
+     * @return statistics of the text
+     * @throws IllegalArgumentException if the text is null
+     */
+    public static WordStatistics of(Text text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null");
+        }
+        List<Sentence> sentences = text.getSentences();
+        if (sentences.size() >= Text.PARALLEL_THRESHOLD) {
+            return sentences.parallelStream()
+                    .collect(WordStatistics::new, WordStatistics::add, WordStatistics::merge);
+        }
+        WordStatistics statistics = new WordStatistics();
+        for (Sentence sentence : sentences) {
+            statistics.add(sentence);
+        }
+        return statistics;
+    }
+
+    private static int hash(int hash, CharSequence chars, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars.charAt(offset + i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Adds the words of a sentence.
+     *
+     * @param sentence the sentence
+     */
+    public void add(Sentence sentence) {
+        if (sentence == null) {
+            return;
+        }
+        previousLength = -1;
+        sentence.forEachWord(this::addWord);
+        previousSource = null;
+    }
+
+    private void addWord(CharSequence source, int offset, int length) {
+        int hash = hash(1, source, offset, length);
+        unigrams.add(source, offset, length, null, 0, -1, hash, 1);
+        if (previousLength >= 0) {
+            // Hash of "previous word" + " " + "word", continued from the hash of the previous word
+            int bigramHash = hash(31 * previousHash + ' ', source, offset, length);
+            bigrams.add(previousSource, previousOffset, previousLength, source, offset, length, bigramHash, 1);
+        }
+        previousSource = source;
+        previousOffset = offset;
+        previousLength = length;
+        previousHash = hash;
+    }
+
+    /**
+     * Adds the counts of other statistics to these.
+     *
+     * @param other statistics to add
+     */
+    public void merge(WordStatistics other) {
+        if (other == null) {
+            return;
+        }
+        unigrams.merge(other.unigrams);
+        bigrams.merge(other.bigrams);
+    }
+
+    /**
+     * Returns the number of occurrences of a word.
+     *
+     * @param word the word
+     * @return number of occurrences
+     */
+    public int count(CharSequence word) {
+        return word == null ? 0 : unigrams.get(word);
+    }
+
+    /**
+     * Returns the number of occurrences of a word directly followed by another word.
+     *
+     * @param first the first word
+     * @param second the second word
+     * @return number of occurrences of the pair
+     */
+    public int count(CharSequence first, CharSequence second) {
+        if (first == null || second == null) {
+            return 0;
+        }
+        return bigrams.get(first + " " + second);
+    }
+
+    /**
+     * Returns the total number of words.
+     *
+     * @return number of words
+     */
+    public long getWordCount() {
+        return unigrams.total;
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return number of distinct words
+     */
+    public int getDistinctWordCount() {
+        return unigrams.size;
+    }
+
+    /**
+     * Returns the total number of bigrams.
+     *
+     * @return number of bigrams
+     */
+    public long getBigramCount() {
+        return bigrams.total;
+    }
+
+    /**
+     * Returns the most frequent words.
+     *
+     * @param n maximum number of words to return
+     * @return words with their counts, by count descending, then alphabetically
+     * @throws IllegalArgumentException if n is negative
+     */
+    public List<Map.Entry<String, Integer>> topWords(int n) {
+        return unigrams.top(n);
+    }
+
+    /**
+     * Returns the most frequent bigrams.
+     *
+     * @param n maximum number of bigrams to return
+     * @return bigrams ("first second") with their counts, by count descending, then alphabetically
+     * @throws IllegalArgumentException if n is negative
+     */
+    public List<Map.Entry<String, Integer>> topBigrams(int n) {
+        return bigrams.top(n);
+    }
+}
\ No newline at end of file